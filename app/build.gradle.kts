@@ -59,6 +59,15 @@ android {
     buildFeatures {
         buildConfig = true
     }
+
+    // 단위 테스트에서 android.util.Log 등은 아무 일도 하지 않도록
+    // 처리량 측정 테스트는 -Pbenchmark 지정 시에만 실행 (./gradlew test -Pbenchmark)
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+        unitTests.all {
+            it.systemProperty("benchmark", project.hasProperty("benchmark").toString())
+        }
+    }
 }
 
 dependencies {
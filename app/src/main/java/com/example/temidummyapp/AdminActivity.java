@@ -14,7 +14,10 @@ import android.widget.ImageView;
 import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import com.robotemi.sdk.Robot;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -58,6 +61,25 @@ public class AdminActivity extends BaseActivity {
             });
         }
 
+        // 채팅 지표 버튼
+        Button metricsBtn = findViewById(R.id.admin_chat_metrics);
+        if (metricsBtn != null) {
+            metricsBtn.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    showChatMetricsDialog();
+                }
+            });
+            // 길게 누르면 채팅 스트림 녹화/재생 (오프라인 회귀 측정용)
+            metricsBtn.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View v) {
+                    showSseTapeDialog();
+                    return true;
+                }
+            });
+        }
+
         // 지도 이미지 로드
         ensureMapBitmapLoaded();
 
@@ -150,6 +172,60 @@ public class AdminActivity extends BaseActivity {
         dialog.show();
     }
 
+    // 채팅 응답 구간별 지표 (토큰 사용량 요약 + 히스토그램)
+    private void showChatMetricsDialog() {
+        String report = ChatMetrics.getInstance().getStats() + "\n\n"
+                + OpenAICircuitBreaker.getInstance().getStats() + "\n"
+                + OpenAIRateLimiter.getInstance().getStats() + "\n"
+                + SseTapeDeck.getInstance().getStats() + "\n\n" + ChatTimings.getReport();
+        new AlertDialog.Builder(this)
+                .setTitle("채팅 지표")
+                .setMessage(report)
+                .setPositiveButton("내보내기", (dialog, which) -> exportChatMetrics())
+                .setNeutralButton("초기화", (dialog, which) -> {
+                    // 토큰 수는 두 곳에 모두 집계되므로 함께 초기화해야 화면의 값이 맞음
+                    ChatTimings.reset();
+                    ChatMetrics.getInstance().reset();
+                    Toast.makeText(this, "채팅 지표를 초기화했습니다.", Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("닫기", null)
+                .show();
+    }
+
+    private void showSseTapeDialog() {
+        final SseTapeDeck deck = SseTapeDeck.getInstance();
+        File base = getExternalFilesDir(null);
+        final File dir = new File(base != null ? base : getFilesDir(), "sse_tapes");
+        String[] items = {"끄기", "녹화", "재생 (원래 속도)", "재생 (10배속)"};
+        new AlertDialog.Builder(this)
+                .setTitle(deck.getStats())
+                .setItems(items, (dialog, which) -> {
+                    try {
+                        if (which == 0) {
+                            deck.off();
+                        } else if (which == 1) {
+                            deck.record(dir);
+                        } else {
+                            deck.replay(dir, which == 2 ? 1.0 : 10.0);
+                        }
+                        Toast.makeText(this, deck.getStats(), Toast.LENGTH_LONG).show();
+                    } catch (IOException e) {
+                        Toast.makeText(this, "녹화/재생 설정 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .setNegativeButton("닫기", null)
+                .show();
+    }
+
+    private void exportChatMetrics() {
+        try {
+            File file = ChatTimings.export(this);
+            Toast.makeText(this, "저장됨: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "지표 저장 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
     private void animateButtonBlink(Button button) {
         // 깜빡임 애니메이션 (3번 반복)
         AlphaAnimation animation = new AlphaAnimation(0.0f, 1.0f);
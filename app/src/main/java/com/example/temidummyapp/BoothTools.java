@@ -0,0 +1,286 @@
+package com.example.temidummyapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.temidummyapp.db.EventSearchHelper;
+import com.example.temidummyapp.utils.CSVLoader;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 챗봇 함수 호출(tool) 정의와 실행
+ * 프로그램 목록을 프롬프트에 통째로 넣는 대신 모델이 부스 DB를 직접 검색하도록 함
+ * - search_booths(fields, target, max_minutes, keyword): 조건 검색
+ * - booth_details(id): 프로그램 상세
+ * 프로세스 전체에서 하나만 사용 (대화 화면마다 실행기와 도구 정의를 새로 만들지 않도록 getInstance()로만 생성)
+ */
+public class BoothTools {
+    private static final String TAG = "BoothTools";
+
+    public static final String SEARCH_BOOTHS = "search_booths";
+    public static final String BOOTH_DETAILS = "booth_details";
+
+    // 검색 결과로 모델에 돌려줄 최대 개수
+    private static final int MAX_RESULTS = 10;
+    // 모델이 "30분", 30.5처럼 보내도 분 단위 숫자만 사용
+    private static final Pattern NUMBER = Pattern.compile("\\d+(\\.\\d+)?");
+
+    private static final List<String> VISITORS = Arrays.asList(
+            EventSearchHelper.VISITOR_ELEMENTARY, EventSearchHelper.VISITOR_ELEMENTARY_UPPER,
+            EventSearchHelper.VISITOR_MIDDLE, EventSearchHelper.VISITOR_HIGH, EventSearchHelper.VISITOR_ADULT);
+
+    private static BoothTools instance;
+
+    private final Context context;
+    private final Gson gson = new Gson();
+    // SQLite 조회 전용 실행기 (스트리밍 스레드를 DB 대기로 막지 않도록 분리)
+    private final ExecutorService dbExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "booth-tools");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile JsonArray definitions;
+
+    public static synchronized BoothTools getInstance(Context context) {
+        if (instance == null) {
+            instance = new BoothTools(context);
+        }
+        return instance;
+    }
+
+    private BoothTools(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * 요청에 넣을 tools 정의 (분야 목록은 DB에서 읽어 1회 생성, 이후 같은 JSON 재사용)
+     * DB를 읽으므로 메인 스레드에서 호출하지 않음
+     */
+    public JsonArray getDefinitions() {
+        JsonArray result = definitions;
+        if (result == null) {
+            synchronized (this) {
+                result = definitions;
+                if (result == null) {
+                    CSVLoader.loadIfEmpty(context);
+                    result = buildDefinitions(new EventSearchHelper(context).getFields());
+                    definitions = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 도구 실행 (DB 전용 스레드에서)
+     *
+     * @return 모델에 돌려줄 JSON 문자열
+     */
+    public Future<String> execute(String name, String arguments) {
+        return dbExecutor.submit(() -> run(name, arguments));
+    }
+
+    private String run(String name, String arguments) {
+        long start = System.currentTimeMillis();
+        JsonObject args;
+        try {
+            args = arguments == null || arguments.trim().isEmpty()
+                    ? new JsonObject() : gson.fromJson(arguments, JsonObject.class);
+        } catch (Exception e) {
+            return error("잘못된 인자: " + e.getMessage());
+        }
+
+        String result;
+        try {
+            if (SEARCH_BOOTHS.equals(name)) {
+                result = searchBooths(args);
+            } else if (BOOTH_DETAILS.equals(name)) {
+                result = boothDetails(args);
+            } else {
+                result = error("알 수 없는 도구: " + name);
+            }
+        } catch (RuntimeException e) {
+            // 실패도 모델에 돌려줘서 다른 조건으로 다시 찾거나 텍스트로 답하게 함
+            Log.e(TAG, name + " 실행 실패: " + arguments, e);
+            result = error("도구 실행 오류: " + e.getMessage());
+        }
+        Log.d(TAG, name + arguments + " → " + result.length() + "자 (" + (System.currentTimeMillis() - start) + "ms)");
+        return result;
+    }
+
+    private String searchBooths(JsonObject args) {
+        List<String> fields = stringList(args.get("fields"));
+        String target = string(args.get("target"));
+        Integer maxMinutes = minutes(args.get("max_minutes"));
+        String keyword = string(args.get("keyword"));
+
+        ArrayList<HashMap<String, String>> rows = new EventSearchHelper(context).search(
+                fields.isEmpty() ? null : fields, null, null,
+                maxMinutes != null ? Collections.singletonList(maxMinutes) : null);
+
+        List<String> allowedTargets = EventSearchHelper.allowedTargetsFor(target);
+        String needle = keyword != null ? keyword.toLowerCase(Locale.ROOT) : null;
+        JsonArray booths = new JsonArray();
+        int matched = 0;
+        for (HashMap<String, String> row : rows) {
+            if (allowedTargets != null && !allowedTargets.contains(row.get("참여대상"))) {
+                continue;
+            }
+            if (needle != null && !(row.get("대제목") + " " + row.get("한줄소개") + " " + row.get("분야"))
+                    .toLowerCase(Locale.ROOT).contains(needle)) {
+                continue;
+            }
+            matched++;
+            if (booths.size() < MAX_RESULTS) {
+                JsonObject booth = new JsonObject();
+                booth.addProperty("id", row.get("id"));
+                booth.addProperty("field", row.get("분야"));
+                booth.addProperty("title", row.get("대제목"));
+                booth.addProperty("target", row.get("참여대상"));
+                booth.addProperty("minutes", row.get("소요시간"));
+                booths.add(booth);
+            }
+        }
+
+        JsonObject result = new JsonObject();
+        result.addProperty("total", matched);
+        result.add("booths", booths);
+        return result.toString();
+    }
+
+    private String boothDetails(JsonObject args) {
+        if (!args.has("id")) {
+            return error("id가 필요합니다");
+        }
+        long id;
+        try {
+            id = args.get("id").getAsLong();
+        } catch (Exception e) {
+            return error("잘못된 id: " + args.get("id"));
+        }
+        HashMap<String, String> row = new EventSearchHelper(context).getById(id);
+        if (row == null) {
+            return error("해당 id의 프로그램이 없습니다: " + id);
+        }
+        JsonObject booth = new JsonObject();
+        booth.addProperty("id", row.get("id"));
+        booth.addProperty("field", row.get("분야"));
+        booth.addProperty("title", row.get("대제목"));
+        booth.addProperty("introduction", row.get("한줄소개"));
+        booth.addProperty("target", row.get("참여대상"));
+        booth.addProperty("minutes", row.get("소요시간_원본"));
+        booth.addProperty("registration", row.get("사전모집여부"));
+        booth.addProperty("dates", row.get("체험기간"));
+        booth.addProperty("hours", row.get("체험시간"));
+        return booth.toString();
+    }
+
+    private static JsonArray buildDefinitions(List<String> fields) {
+        JsonObject fieldItems = new JsonObject();
+        fieldItems.addProperty("type", "string");
+        fieldItems.add("enum", toJsonArray(fields));
+
+        JsonObject searchProps = new JsonObject();
+        searchProps.add("fields", property("array", "관심 분야 (여러 개 가능)"));
+        searchProps.getAsJsonObject("fields").add("items", fieldItems);
+        searchProps.add("target", property("string", "방문객 연령대"));
+        searchProps.getAsJsonObject("target").add("enum", toJsonArray(VISITORS));
+        searchProps.add("max_minutes", property("integer", "최대 체험 시간(분)"));
+        searchProps.add("keyword", property("string", "프로그램 이름/소개에 포함된 단어 (예: 드론, 로봇)"));
+
+        JsonObject detailsProps = new JsonObject();
+        detailsProps.add("id", property("integer", "search_booths 결과의 프로그램 id"));
+
+        JsonArray tools = new JsonArray();
+        tools.add(function(SEARCH_BOOTHS, "조건에 맞는 체험 프로그램 목록을 부스 DB에서 검색합니다.", searchProps, new JsonArray()));
+        JsonArray detailsRequired = new JsonArray();
+        detailsRequired.add("id");
+        tools.add(function(BOOTH_DETAILS, "프로그램 하나의 소개, 대상, 소요시간, 운영 기간/시간을 조회합니다.",
+                detailsProps, detailsRequired));
+        return tools;
+    }
+
+    private static JsonObject function(String name, String description, JsonObject properties, JsonArray required) {
+        JsonObject parameters = new JsonObject();
+        parameters.addProperty("type", "object");
+        parameters.add("properties", properties);
+        parameters.add("required", required);
+
+        JsonObject function = new JsonObject();
+        function.addProperty("name", name);
+        function.addProperty("description", description);
+        function.add("parameters", parameters);
+
+        JsonObject tool = new JsonObject();
+        tool.addProperty("type", "function");
+        tool.add("function", function);
+        return tool;
+    }
+
+    private static JsonObject property(String type, String description) {
+        JsonObject property = new JsonObject();
+        property.addProperty("type", type);
+        property.addProperty("description", description);
+        return property;
+    }
+
+    private static JsonArray toJsonArray(List<String> values) {
+        JsonArray array = new JsonArray();
+        for (String value : values) {
+            array.add(value);
+        }
+        return array;
+    }
+
+    private static List<String> stringList(JsonElement element) {
+        List<String> values = new ArrayList<>();
+        if (element != null && element.isJsonArray()) {
+            for (JsonElement value : element.getAsJsonArray()) {
+                if (value.isJsonPrimitive()) {
+                    values.add(value.getAsString());
+                }
+            }
+        }
+        return values;
+    }
+
+    private static String string(JsonElement element) {
+        return element != null && element.isJsonPrimitive() && !element.getAsString().isEmpty()
+                ? element.getAsString() : null;
+    }
+
+    /**
+     * 분 단위 숫자 (30, 30.5, "30분" 모두 허용, 숫자가 없으면 null)
+     */
+    private static Integer minutes(JsonElement element) {
+        if (element == null || !element.isJsonPrimitive()) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(element.getAsString());
+        return matcher.find() ? (int) Math.round(Double.parseDouble(matcher.group())) : null;
+    }
+
+    /**
+     * 모델에 돌려줄 오류 결과 JSON
+     */
+    static String error(String message) {
+        JsonObject result = new JsonObject();
+        result.addProperty("error", message);
+        return result.toString();
+    }
+}
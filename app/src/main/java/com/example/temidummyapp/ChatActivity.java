@@ -4,7 +4,9 @@ import android.app.AlertDialog;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.InputType;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
@@ -19,23 +21,40 @@ import android.widget.Toast;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.SimpleItemAnimator;
 
+import com.robotemi.sdk.Robot;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public class ChatActivity extends BaseActivity {
     private static final String TAG = "ChatActivity";
+    // 웨이크워드로 진입 (잠깐 조용했어도 새 방문객으로 봄)
+    public static final String EXTRA_FROM_WAKE_WORD = "from_wake_word";
+    // 채팅 화면을 닫고 나왔는지 (MainActivity가 복귀 시 새 세션을 시작할지 판단, 메인 스레드에서만 접근)
+    private static boolean closedSinceChecked = false;
     private static final int KEYBOARD_HEIGHT_THRESHOLD = 150;
 
     private ChatAdapter chatAdapter;
     private OpenAIService openAIService;
     private ApiKeyManager apiKeyManager;
     private ChatStorage chatStorage;
+    private ChatPersister chatPersister;
+    private boolean historyLoaded = false;
+    private boolean hasOlderHistory = false; // 아직 불러오지 않은 이전 페이지가 있는지
+    private boolean loadingOlderHistory = false;
     private RecyclerView chatList;
     private EditText inputMessage;
     private Button btnSend;
     private Button btnReset;
     private View backButton;
-    private boolean isWaitingForResponse = false;
+    // 답변 중에 새 질문이 오면 진행 중인 스트림을 취소하고 새 질문에 답함
+    private static final RequestArbiter.Policy REQUEST_POLICY = RequestArbiter.Policy.CANCEL_AND_REPLACE;
+    private RequestArbiter requestArbiter; // 텍스트/음성 입력의 GPT 요청 순서 조정
+    private StreamingMessageBuffer activeBuffer; // 스트리밍 중인 봇 메시지 버퍼
+    private StreamingSpeaker activeSpeaker; // 답변을 읽고 있는 TTS (응답 완료 후에도 읽는 중일 수 있음)
+    private boolean autoScrollPinned = true; // 목록 맨 아래에 고정되어 있는지 (사용자가 위로 스크롤하면 해제)
 
     // STT 관련
     private SpeechToTextService sttService; // 배치 방식
@@ -69,11 +88,16 @@ public class ChatActivity extends BaseActivity {
         // OpenAI 서비스 초기화
         setupOpenAI();
 
+        // 첫 질문 전에 API 서버 연결을 미리 맺어둠
+        OpenAIHttpClient.prewarm("채팅 화면 진입");
+
         // STT 서비스 초기화
         setupSTT();
 
         // 채팅 저장소 초기화
         chatStorage = new ChatStorage(this);
+        // 불러오기 전에 저장하면 기록 순서가 뒤바뀌므로 불러온 뒤부터 저장
+        chatPersister = new ChatPersister(chatStorage, () -> historyLoaded ? chatAdapter.getMessages() : null);
 
         // UI 초기화
         initializeViews();
@@ -134,13 +158,10 @@ public class ChatActivity extends BaseActivity {
         backButton = findViewById(R.id.backButton);
         if (backButton != null) {
             backButton.setOnClickListener(v -> {
-                // 메시지 수신 중이면 무시
-                if (isWaitingForResponse) {
-                    Toast.makeText(this, "메시지를 받는 중입니다. 잠시만 기다려주세요.", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                // 채팅 기록 저장
-                saveChatHistory();
+                // 받던 응답은 중단 (이미 받은 부분은 저장됨)
+                cancelActiveStream();
+                // 채팅 기록 저장 (DB 쓰기는 백그라운드, 화면 전환을 기다리게 하지 않음)
+                chatPersister.flush();
                 finish();
             });
         }
@@ -172,6 +193,31 @@ public class ChatActivity extends BaseActivity {
         chatAdapter = new ChatAdapter();
         chatList.setAdapter(chatAdapter);
 
+        // 스트리밍 중 매 프레임 항목이 바뀌므로 깜빡이는 변경 애니메이션 끔
+        RecyclerView.ItemAnimator animator = chatList.getItemAnimator();
+        if (animator instanceof SimpleItemAnimator) {
+            ((SimpleItemAnimator) animator).setSupportsChangeAnimations(false);
+        }
+
+        // 사용자가 직접 스크롤하면 자동 스크롤 고정 해제, 다시 맨 아래로 내리면 고정
+        chatList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    autoScrollPinned = !recyclerView.canScrollVertically(1);
+                } else if (newState == RecyclerView.SCROLL_STATE_DRAGGING) {
+                    autoScrollPinned = false;
+                }
+            }
+
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy < 0) {
+                    loadOlderHistoryIfAtTop();
+                }
+            }
+        });
+
         chatList.setOnTouchListener((v, event) -> {
             if (event.getAction() == MotionEvent.ACTION_DOWN) {
                 hideKeyboard();
@@ -207,6 +253,29 @@ public class ChatActivity extends BaseActivity {
             return true;
         });
 
+        // 메시지 입력을 시작하면 연결 미리 맺기 (메시지당 첫 입력 1회, 실제 연결은 prewarm에서 제한)
+        inputMessage.addTextChangedListener(new TextWatcher() {
+            private boolean prewarmed = false;
+
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                if (s.length() == 0) {
+                    prewarmed = false;
+                } else if (!prewarmed) {
+                    prewarmed = true;
+                    OpenAIHttpClient.prewarm("입력 시작");
+                }
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+            }
+        });
+
         // 음성 대화 버튼 클릭 - 실시간 양방향 대화 시작
         btnVoiceChat.setOnClickListener(v -> startVoiceChat());
 
@@ -225,74 +294,101 @@ public class ChatActivity extends BaseActivity {
             return;
         }
 
-        if (isWaitingForResponse) {
-            Toast.makeText(this, "응답을 기다리는 중입니다...", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
         if (!openAIService.hasApiKey()) {
             showApiKeyDialog();
             return;
         }
 
-        // 사용자 메시지 추가
-        ChatMessage userMessage = new ChatMessage(text, ChatMessage.TYPE_USER);
-        chatAdapter.addMessage(userMessage);
-        scrollToBottom();
-
         // 입력창 초기화
         inputMessage.setText("");
         hideKeyboard();
 
-        // GPT 응답 요청
-        requestBotResponse();
+        // 화면을 켜 둔 채 오래 지났으면 이전 방문객 대화를 이어받지 않음
+        if (!requestArbiter.isBusy()
+                && chatStorage.startNewSessionIfIdle(ChatStorage.IDLE_TIMEOUT_MS, "대기 시간 초과")) {
+            startEmptyConversation();
+        }
+
+        // GPT 응답 요청 (답변 중이면 중재 정책에 따라 교체/대기/합침)
+        requestArbiter.submit(text);
     }
 
-    private void requestBotResponse() {
-        isWaitingForResponse = true;
-        setButtonsEnabled(false);
+    /**
+     * 차례가 된 질문을 대화에 추가하고 스트리밍 요청 준비 (RequestArbiter.Host)
+     */
+    private RequestArbiter.Turn beginTurn(String text) {
+        // 사용자 메시지 추가
+        ChatMessage userMessage = new ChatMessage(text, ChatMessage.TYPE_USER);
+        chatAdapter.addMessage(userMessage, this::scrollToBottom);
 
         // 빈 봇 메시지 추가 (스트리밍으로 채워질 예정)
         ChatMessage botMessage = new ChatMessage("", ChatMessage.TYPE_BOT);
-        chatAdapter.addMessage(botMessage);
-        final int botMessageIndex = chatAdapter.getMessages().size() - 1;
-        scrollToBottom();
+        chatAdapter.addMessage(botMessage, this::scrollToBottom);
+        chatPersister.markDirty();
+
+        // 토큰은 버퍼에 모았다가 프레임당 한 번만 화면에 반영 (텍스트만 부분 바인딩)
+        final StreamingMessageBuffer buffer = new StreamingMessageBuffer(botMessage, message -> {
+            chatAdapter.notifyMessageChanged(message);
+            pinToBottom();
+            // 받는 중인 답변도 주기적으로 저장 (앱이 종료돼도 받은 부분은 남음)
+            chatPersister.markDirty();
+        });
+        activeBuffer = buffer;
 
-        // 스트리밍 요청
-        openAIService.sendMessageStreaming(chatAdapter.getMessages(), new OpenAIService.StreamCallback() {
+        // 문장이 완성될 때마다 바로 읽기 시작
+        stopSpeaking();
+        Robot robot = Robot.getInstance();
+        final StreamingSpeaker speaker = robot != null ? new StreamingSpeaker(robot) : null;
+        activeSpeaker = speaker;
+
+        // 스트리밍 요청 (요청은 RequestArbiter가 보냄)
+        return new RequestArbiter.Turn(chatAdapter.getMessages(), new OpenAIService.StreamCallback() {
             @Override
             public void onStream(String chunk) {
-                // 실시간으로 텍스트 추가
-                ChatMessage currentMessage = chatAdapter.getMessages().get(botMessageIndex);
-                currentMessage.setMessage(currentMessage.getMessage() + chunk);
-                chatAdapter.notifyItemChanged(botMessageIndex);
-                scrollToBottom();
+                buffer.append(chunk);
+                if (speaker != null) {
+                    speaker.append(chunk);
+                }
+            }
+
+            @Override
+            public void onAnswerSource(OpenAIService.AnswerSource source) {
+                Log.d(TAG, "답변 출처: " + source);
+                if (source == OpenAIService.AnswerSource.OFFLINE) {
+                    Toast.makeText(ChatActivity.this, "인터넷 연결이 없어 기본 안내로 답변합니다.", Toast.LENGTH_SHORT).show();
+                }
             }
 
             @Override
             public void onComplete() {
-                isWaitingForResponse = false;
-                setButtonsEnabled(true);
+                buffer.finish();
+                if (speaker != null) {
+                    speaker.finish();
+                }
+                activeBuffer = null;
                 Log.d(TAG, "스트리밍 완료");
 
                 // 메시지가 비어있으면 에러 처리
-                ChatMessage finalMessage = chatAdapter.getMessages().get(botMessageIndex);
-                if (finalMessage.getMessage().isEmpty()) {
-                    finalMessage.setMessage("응답을 받지 못했습니다.");
-                    chatAdapter.notifyItemChanged(botMessageIndex);
+                if (botMessage.getMessage().isEmpty()) {
+                    botMessage.setMessage("응답을 받지 못했습니다.");
+                    chatAdapter.notifyMessageChanged(botMessage);
                 }
+                chatPersister.markDirty();
             }
 
             @Override
             public void onError(String error) {
-                isWaitingForResponse = false;
-                setButtonsEnabled(true);
+                buffer.finish();
+                if (speaker != null) {
+                    speaker.cancel();
+                }
+                activeBuffer = null;
 
                 // 에러 메시지로 업데이트
-                ChatMessage errorMessage = chatAdapter.getMessages().get(botMessageIndex);
-                errorMessage.setMessage("죄송합니다. 오류가 발생했습니다: " + error);
-                chatAdapter.notifyItemChanged(botMessageIndex);
+                botMessage.setMessage("죄송합니다. 오류가 발생했습니다: " + error);
+                chatAdapter.notifyMessageChanged(botMessage);
                 scrollToBottom();
+                chatPersister.markDirty();
 
                 Log.e(TAG, "GPT 스트리밍 오류: " + error);
             }
@@ -300,22 +396,45 @@ public class ChatActivity extends BaseActivity {
     }
 
     /**
-     * 버튼들의 활성화/비활성화 상태 및 시각적 효과 설정
+     * 진행 중인 GPT 스트림과 대기 중인 질문 취소 (화면 이탈, 채팅 초기화, 음성 대화 전환 시)
+     * OkHttp 요청을 중단하고 이후 콜백은 전달되지 않음
      */
-    private void setButtonsEnabled(boolean enabled) {
-        // 전송 버튼
-        btnSend.setEnabled(enabled);
+    private void cancelActiveStream() {
+        stopSpeaking();
+        requestArbiter.cancelAll();
+    }
 
-        // 뒤로가기 버튼
-        if (backButton != null) {
-            backButton.setEnabled(enabled);
-            backButton.setAlpha(enabled ? 1.0f : 0.3f); // 비활성화 시 30% 투명도
+    /**
+     * 새 질문이나 화면 이탈로 진행 중이던 턴이 취소됨 (RequestArbiter.Host)
+     */
+    private void onTurnCancelled() {
+        stopSpeaking();
+        if (activeBuffer != null) {
+            // 이미 받은 부분은 화면에 남김
+            activeBuffer.finish();
+            activeBuffer = null;
         }
+        Log.d(TAG, "진행 중인 스트리밍 취소");
 
-        // 초기화 버튼
-        if (btnReset != null) {
-            btnReset.setEnabled(enabled);
-            btnReset.setAlpha(enabled ? 1.0f : 0.5f); // 비활성화 시 50% 투명도
+        // 응답이 오기 전에 취소된 빈 봇 메시지 정리
+        List<ChatMessage> messages = chatAdapter.getMessages();
+        if (!messages.isEmpty()) {
+            ChatMessage last = messages.get(messages.size() - 1);
+            if (last.isBot() && last.getMessage().isEmpty()) {
+                last.setMessage("응답이 취소되었습니다.");
+                chatAdapter.notifyMessageChanged(last);
+            }
+        }
+        chatPersister.markDirty();
+    }
+
+    /**
+     * 답변 읽기 중단 (사용자가 끼어들 때: 새 질문, 마이크, 음성 대화, 화면 이탈)
+     */
+    private void stopSpeaking() {
+        if (activeSpeaker != null) {
+            activeSpeaker.cancel();
+            activeSpeaker = null;
         }
     }
 
@@ -348,11 +467,22 @@ public class ChatActivity extends BaseActivity {
                         | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION);
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // 화면을 벗어나면 남은 응답을 더 받지 않음 (토큰/대역폭 낭비 방지)
+        cancelActiveStream();
+        // 화면이 가려진 뒤라 잠깐 기다려도 전환이 멈추지 않음 (백그라운드에서 프로세스가 정리돼도 남도록)
+        chatPersister.flushAndWait();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         // Wake Word는 MainActivity에서만 제어됨 (자동 재시작 안 함)
 
+        cancelActiveStream();
+
         // STT 서비스 리소스 해제
         if (sttService != null) {
             sttService.release();
@@ -403,12 +533,23 @@ public class ChatActivity extends BaseActivity {
 
     private void scrollToBottom() {
         if (chatAdapter.getItemCount() > 0) {
+            autoScrollPinned = true;
             chatList.smoothScrollToPosition(chatAdapter.getItemCount() - 1);
         }
     }
 
+    /**
+     * 스트리밍 중 맨 아래 고정 (애니메이션 없이 즉시 이동)
+     * stackFromEnd 레이아웃이라 마지막 메시지가 화면보다 길어져도 끝부분이 보이도록 정렬됨
+     */
+    private void pinToBottom() {
+        if (autoScrollPinned && chatAdapter.getItemCount() > 0) {
+            chatList.scrollToPosition(chatAdapter.getItemCount() - 1);
+        }
+    }
+
     private void setupOpenAI() {
-        openAIService = new OpenAIService();
+        openAIService = new OpenAIService(this);
         apiKeyManager = new ApiKeyManager(this);
 
         // API 키를 BuildConfig에서 가져오기
@@ -416,6 +557,23 @@ public class ChatActivity extends BaseActivity {
         apiKeyManager.saveApiKey(apiKey);
         openAIService.setApiKey(apiKey);
 
+        requestArbiter = new RequestArbiter(openAIService, REQUEST_POLICY, new RequestArbiter.Host() {
+            @Override
+            public RequestArbiter.Turn beginTurn(String text) {
+                return ChatActivity.this.beginTurn(text);
+            }
+
+            @Override
+            public void onTurnCancelled() {
+                ChatActivity.this.onTurnCancelled();
+            }
+
+            @Override
+            public void onTurnDeferred(int pending) {
+                Toast.makeText(ChatActivity.this, "지금 답변이 끝나면 이어서 답변할게요.", Toast.LENGTH_SHORT).show();
+            }
+        });
+
         Log.d(TAG, "OpenAI API 키 설정 완료");
     }
 
@@ -506,11 +664,8 @@ public class ChatActivity extends BaseActivity {
             }
         }
 
-        // 메시지 수신 중이면 무시
-        if (isWaitingForResponse) {
-            Toast.makeText(this, "메시지를 받는 중입니다. 잠시만 기다려주세요.", Toast.LENGTH_SHORT).show();
-            return;
-        }
+        // 테미 목소리가 마이크에 섞이지 않도록 읽기 중단 (답변 수신은 계속, 말한 내용은 전송 시 중재)
+        stopSpeaking();
 
         // 현재 STT 모드에 따라 다른 서비스 사용
         if (currentSTTMode == STTMode.REALTIME) {
@@ -720,48 +875,133 @@ public class ChatActivity extends BaseActivity {
                 "안녕하세요! 행사장 안내 챗봇입니다.\n\n" +
                         "행사장 정보, 부스 위치, 이벤트 일정 등 궁금한 점을 물어보세요.",
                 ChatMessage.TYPE_BOT);
-        chatAdapter.addMessage(welcomeMessage);
+        chatAdapter.addMessage(welcomeMessage, this::scrollToBottom);
     }
 
     private void loadOrInitializeChat() {
-        if (chatStorage.hasMessages()) {
-            // 저장된 채팅 기록 불러오기
-            List<ChatMessage> savedMessages = chatStorage.loadMessages();
-            for (ChatMessage message : savedMessages) {
-                chatAdapter.addMessage(message);
-            }
-            scrollToBottom();
-            Log.d(TAG, "저장된 채팅 기록 불러옴: " + savedMessages.size() + "개");
+        // 한동안 대화가 없었으면 새 방문객으로 보고 빈 대화로 시작
+        if (getIntent().getBooleanExtra(EXTRA_FROM_WAKE_WORD, false)) {
+            chatStorage.startNewSessionIfIdle(ChatStorage.WAKE_WORD_IDLE_MS, "웨이크워드");
         } else {
-            // 첫 실행 시 환영 메시지 표시
-            addWelcomeMessage();
+            chatStorage.startNewSessionIfIdle(ChatStorage.IDLE_TIMEOUT_MS, "대기 시간 초과");
         }
+
+        // DB 읽기는 백그라운드에서 하고 결과만 메인 스레드에서 반영
+        chatStorage.loadMessages((savedMessages, hasOlder) -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            historyLoaded = true;
+            hasOlderHistory = hasOlder;
+            if (!chatAdapter.getMessages().isEmpty()) {
+                // 불러오는 사이에 나눈 대화는 저장을 미뤄 두었음
+                chatPersister.markDirty();
+            }
+            if (savedMessages.isEmpty()) {
+                // 첫 실행 시 환영 메시지 표시
+                if (chatAdapter.getMessages().isEmpty()) {
+                    addWelcomeMessage();
+                }
+                return;
+            }
+            // 불러오는 사이에 입력한 대화가 있으면 저장된 기록 뒤에 이어 붙임
+            // 한 번에 제출해 메시지마다 삽입 알림이 가지 않도록 함
+            List<ChatMessage> merged = new ArrayList<>(savedMessages);
+            merged.addAll(chatAdapter.getMessages());
+            chatAdapter.setMessages(merged, () -> {
+                scrollToBottom();
+                // 첫 페이지가 화면을 다 채우지 못하면 이전 페이지도 이어서 불러옴
+                loadOlderHistoryIfAtTop();
+            });
+            Log.d(TAG, "저장된 채팅 기록 불러옴: " + savedMessages.size() + "개" + (hasOlder ? " (이전 기록 있음)" : ""));
+        });
     }
 
-    private void saveChatHistory() {
-        List<ChatMessage> messages = chatAdapter.getMessages();
-        chatStorage.saveMessages(messages);
-        Log.d(TAG, "채팅 기록 저장됨: " + messages.size() + "개");
+    /**
+     * 목록 맨 위에 닿았으면 이전 기록 한 페이지를 불러와 앞에 붙임 (보던 위치 유지)
+     */
+    private void loadOlderHistoryIfAtTop() {
+        if (!hasOlderHistory || loadingOlderHistory || chatList.canScrollVertically(-1)) {
+            return;
+        }
+        loadingOlderHistory = true;
+        chatStorage.loadOlderMessages((olderMessages, hasOlder) -> {
+            loadingOlderHistory = false;
+            if (isFinishing() || isDestroyed() || !hasOlderHistory) {
+                // 그사이 대화가 초기화됨
+                return;
+            }
+            hasOlderHistory = hasOlder;
+            if (olderMessages.isEmpty()) {
+                return;
+            }
+            LinearLayoutManager layoutManager = (LinearLayoutManager) chatList.getLayoutManager();
+            int firstVisible = layoutManager.findFirstVisibleItemPosition();
+            View firstView = layoutManager.findViewByPosition(firstVisible);
+            int offset = firstView != null ? firstView.getTop() : 0;
+
+            List<ChatMessage> merged = new ArrayList<>(olderMessages);
+            merged.addAll(chatAdapter.getMessages());
+            chatAdapter.setMessages(merged, () -> {
+                if (firstVisible != RecyclerView.NO_POSITION) {
+                    layoutManager.scrollToPositionWithOffset(firstVisible + olderMessages.size(), offset);
+                }
+            });
+            Log.d(TAG, "이전 채팅 기록 불러옴: " + olderMessages.size() + "개");
+        });
     }
 
     private void resetChat() {
+        // 진행 중인 응답 중단
+        cancelActiveStream();
+        // 대기 중인 저장을 지울 세션에 먼저 반영 (새 세션으로 넘어가 남지 않도록)
+        chatPersister.flush();
+
         // 채팅 기록 삭제
         chatStorage.clearMessages();
+        startEmptyConversation();
+
+        Toast.makeText(this, "채팅이 초기화되었습니다.", Toast.LENGTH_SHORT).show();
+        Log.d(TAG, "채팅 초기화 완료");
+    }
+
+    /**
+     * 화면과 요청 컨텍스트를 빈 대화로 되돌림 (초기화, 새 세션 시작 시)
+     */
+    private void startEmptyConversation() {
+        hasOlderHistory = false;
+        openAIService.resetConversation();
         chatAdapter.clearMessages();
 
         // 환영 메시지 다시 표시
         addWelcomeMessage();
-        scrollToBottom();
-
-        Toast.makeText(this, "채팅이 초기화되었습니다.", Toast.LENGTH_SHORT).show();
-        Log.d(TAG, "채팅 초기화 완료");
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         // 앱이 백그라운드로 갈 때 자동 저장
-        saveChatHistory();
+        // (메인 화면이 새 세션을 시작하기 전에 저장 요청이 들어가도록 onStop보다 먼저)
+        chatPersister.flush();
+        if (isFinishing()) {
+            closedSinceChecked = true;
+        }
+    }
+
+    /**
+     * 마지막 확인 이후 채팅 화면을 닫았는지 (확인하면 초기화)
+     */
+    static boolean consumeClosed() {
+        boolean closed = closedSinceChecked;
+        closedSinceChecked = false;
+        return closed;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // 프로세스가 정리될 수 있으므로 대기 중인 변경을 바로 저장하고 쓰기가 끝날 때까지 잠깐 대기
+        chatPersister.flushAndWait();
     }
 
     /**
@@ -777,14 +1017,11 @@ public class ChatActivity extends BaseActivity {
             }
         }
 
-        // 메시지 수신 중이면 무시
-        if (isWaitingForResponse) {
-            Toast.makeText(this, "메시지를 받는 중입니다. 잠시만 기다려주세요.", Toast.LENGTH_SHORT).show();
-            return;
-        }
+        // 음성 대화로 넘어가므로 받던 응답과 읽기 중단
+        cancelActiveStream();
 
         // 채팅 기록 저장
-        saveChatHistory();
+        chatPersister.flush();
 
         // 실시간 음성 대화 Activity 시작
         android.content.Intent intent = new android.content.Intent(this, RealtimeVoiceChatActivity.class);
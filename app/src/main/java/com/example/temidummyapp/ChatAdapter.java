@@ -1,39 +1,74 @@
 package com.example.temidummyapp;
 
-import android.graphics.Typeface;
-import android.text.SpannableString;
-import android.text.Spanned;
-import android.text.style.StrikethroughSpan;
-import android.text.style.StyleSpan;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * 채팅 메시지 RecyclerView Adapter
+ * 목록은 변경할 때마다 새 불변 리스트로 제출하고 차이는 백그라운드에서 계산 (AsyncListDiffer)
+ * 스트리밍 중 텍스트 변경은 PAYLOAD_TEXT 부분 바인딩으로 해당 말풍선의 TextView만 갱신
  */
-public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder> {
-    
-    private List<ChatMessage> messages;
-    
+public class ChatAdapter extends ListAdapter<ChatMessage, ChatAdapter.ChatViewHolder> {
+
+    /**
+     * 메시지 텍스트만 바뀌었음 (말풍선 전체를 다시 바인딩하지 않음)
+     */
+    static final Object PAYLOAD_TEXT = new Object();
+
+    private static final DiffUtil.ItemCallback<ChatMessage> DIFF = new DiffUtil.ItemCallback<ChatMessage>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
+            return oldItem.getType() == newItem.getType()
+                    && TextUtils.equals(oldItem.getMessage(), newItem.getMessage());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
+            return oldItem.getType() == newItem.getType() ? PAYLOAD_TEXT : null;
+        }
+    };
+
+    // 마지막으로 제출한 목록 (비동기 diff가 끝나기 전에도 연속 추가가 누락되지 않도록 기준으로 사용)
+    private List<ChatMessage> submitted = Collections.emptyList();
+
+    // 메시지별 마크다운 렌더링 결과 (메시지 버전이 같으면 재사용, 스트리밍 중에는 이어서 파싱)
+    private final Map<ChatMessage, MarkdownRenderer.Document> rendered = new WeakHashMap<>();
+
     public ChatAdapter() {
-        this.messages = new ArrayList<>();
+        super(DIFF);
+        setHasStableIds(true);
     }
-    
+
     @Override
     public int getItemViewType(int position) {
-        return messages.get(position).getType();
+        return getItem(position).getType();
     }
-    
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
     @NonNull
     @Override
     public ChatViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -47,173 +82,113 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder
         }
         return new ChatViewHolder(view);
     }
-    
+
     @Override
     public void onBindViewHolder(@NonNull ChatViewHolder holder, int position) {
-        ChatMessage message = messages.get(position);
-        holder.bind(message);
+        holder.bind(render(getItem(position)));
     }
-    
+
     @Override
-    public int getItemCount() {
-        return messages.size();
+    public void onBindViewHolder(@NonNull ChatViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_TEXT)) {
+            holder.bindText(render(getItem(position)));
+            return;
+        }
+        onBindViewHolder(holder, position);
     }
-    
+
+    /**
+     * 마크다운 적용된 메시지 텍스트 (캐시)
+     */
+    private CharSequence render(ChatMessage message) {
+        MarkdownRenderer.Document document = rendered.get(message);
+        if (document == null) {
+            document = new MarkdownRenderer.Document();
+            rendered.put(message, document);
+        }
+        return document.render(message.getMessage(), message.getVersion());
+    }
+
     /**
      * 새 메시지 추가
+     *
+     * @param committed 목록이 화면에 반영된 뒤 실행 (스크롤 등), null 가능
      */
+    public void addMessage(ChatMessage message, @Nullable Runnable committed) {
+        List<ChatMessage> next = new ArrayList<>(submitted.size() + 1);
+        next.addAll(submitted);
+        next.add(message);
+        submit(next, committed);
+    }
+
     public void addMessage(ChatMessage message) {
-        messages.add(message);
-        notifyItemInserted(messages.size() - 1);
+        addMessage(message, null);
     }
-    
+
+    /**
+     * 목록 전체 교체 (저장된 대화 복원 시 한 번에 제출)
+     */
+    public void setMessages(List<ChatMessage> messages, @Nullable Runnable committed) {
+        submit(new ArrayList<>(messages), committed);
+    }
+
     /**
      * 모든 메시지 삭제
      */
     public void clearMessages() {
-        int size = messages.size();
-        messages.clear();
-        notifyItemRangeRemoved(0, size);
+        rendered.clear();
+        submit(new ArrayList<>(), null);
+    }
+
+    /**
+     * 메시지 텍스트가 바뀌었음을 알림 (해당 말풍선의 텍스트만 다시 바인딩)
+     * 아직 diff가 반영되지 않은 메시지면 삽입될 때 최신 텍스트로 바인딩되므로 무시
+     */
+    public void notifyMessageChanged(ChatMessage message) {
+        List<ChatMessage> current = getCurrentList();
+        // 스트리밍 메시지는 보통 마지막이므로 뒤에서부터 찾음
+        for (int i = current.size() - 1; i >= 0; i--) {
+            if (current.get(i) == message) {
+                notifyItemChanged(i, PAYLOAD_TEXT);
+                return;
+            }
+        }
     }
-    
+
     /**
-     * 메시지 리스트 가져오기
+     * 마지막으로 제출한 메시지 목록 (읽기 전용)
      */
     public List<ChatMessage> getMessages() {
-        return messages;
+        return submitted;
     }
-    
+
+    private void submit(List<ChatMessage> next, @Nullable Runnable committed) {
+        submitted = Collections.unmodifiableList(next);
+        submitList(submitted, committed);
+    }
+
     static class ChatViewHolder extends RecyclerView.ViewHolder {
         private TextView tvMessage;
-        
+        private CharSequence boundText;
+
         public ChatViewHolder(@NonNull View itemView) {
             super(itemView);
             tvMessage = itemView.findViewById(R.id.tv_message);
         }
-        
-        public void bind(ChatMessage message) {
-            // 마크다운 볼드 처리 적용
-            CharSequence formattedText = applyMarkdownFormatting(message.getMessage());
+
+        public void bind(CharSequence formattedText) {
+            boundText = formattedText;
             tvMessage.setText(formattedText);
         }
-        
-        /**
-         * 마크다운 스타일 포맷팅 적용
-         * **텍스트** -> 볼드 처리
-         * *텍스트* -> 이탤릭 처리
-         * ~~텍스트~~ -> 취소선 처리
-         */
-        private CharSequence applyMarkdownFormatting(String text) {
-            if (text == null || text.isEmpty()) {
-                return text;
-            }
-            
-            // 마크다운 패턴들 (순서 중요: 볼드 -> 취소선 -> 이탤릭)
-            String[] patterns = {
-                "\\*\\*(.+?)\\*\\*",  // 볼드: **텍스트**
-                "~~(.+?)~~",          // 취소선: ~~텍스트~~
-                "(?<!\\*)\\*(?!\\*)(.+?)(?<!\\*)\\*(?!\\*)"  // 이탤릭: *텍스트* (단, **는 제외)
-            };
-            
-            String workingText = text;
-            List<FormatSpan> formatSpans = new ArrayList<>();
-            
-            // 각 패턴별로 처리
-            for (int patternType = 0; patternType < patterns.length; patternType++) {
-                Pattern pattern = Pattern.compile(patterns[patternType]);
-                Matcher matcher = pattern.matcher(workingText);
-                
-                StringBuilder newText = new StringBuilder();
-                int lastEnd = 0;
-                List<FormatSpan> currentSpans = new ArrayList<>();
-                
-                while (matcher.find()) {
-                    // 마크 앞의 텍스트 추가
-                    newText.append(workingText.substring(lastEnd, matcher.start()));
-                    
-                    // 스타일 처리할 텍스트의 시작 위치 저장
-                    int spanStart = newText.length();
-                    
-                    // 마크 없이 내용만 추가
-                    String content = matcher.group(1);
-                    newText.append(content);
-                    
-                    // 스타일 처리할 텍스트의 끝 위치 저장
-                    int spanEnd = newText.length();
-                    
-                    currentSpans.add(new FormatSpan(spanStart, spanEnd, patternType));
-                    
-                    lastEnd = matcher.end();
-                }
-                
-                // 매칭이 하나라도 있었다면
-                if (!currentSpans.isEmpty()) {
-                    // 나머지 텍스트 추가
-                    newText.append(workingText.substring(lastEnd));
-                    
-                    // 다음 반복을 위해 텍스트 업데이트
-                    workingText = newText.toString();
-                    
-                    // 스팬 정보 저장
-                    formatSpans.addAll(currentSpans);
-                }
-            }
-            
-            // 포맷팅할 것이 없으면 원본 반환
-            if (formatSpans.isEmpty()) {
-                return text;
-            }
-            
-            // 최종 SpannableString 생성
-            SpannableString result = new SpannableString(workingText);
-            
-            // 스타일 적용
-            for (FormatSpan span : formatSpans) {
-                switch (span.type) {
-                    case 0: // 볼드
-                        result.setSpan(
-                            new StyleSpan(Typeface.BOLD),
-                            span.start,
-                            span.end,
-                            Spanned.SPAN_EXCLUSIVE_EXCLUSIVE
-                        );
-                        break;
-                    case 1: // 취소선
-                        result.setSpan(
-                            new StrikethroughSpan(),
-                            span.start,
-                            span.end,
-                            Spanned.SPAN_EXCLUSIVE_EXCLUSIVE
-                        );
-                        break;
-                    case 2: // 이탤릭
-                        result.setSpan(
-                            new StyleSpan(Typeface.ITALIC),
-                            span.start,
-                            span.end,
-                            Spanned.SPAN_EXCLUSIVE_EXCLUSIVE
-                        );
-                        break;
-                }
-            }
-            
-            return result;
-        }
-        
+
         /**
-         * 포맷 스팬 위치 및 타입 저장용 헬퍼 클래스
+         * 부분 바인딩: 렌더링 결과가 그대로면 setText를 건너뛰어 다시 측정하지 않음
          */
-        private static class FormatSpan {
-            int start;
-            int end;
-            int type; // 0: 볼드, 1: 취소선, 2: 이탤릭
-            
-            FormatSpan(int start, int end, int type) {
-                this.start = start;
-                this.end = end;
-                this.type = type;
+        public void bindText(CharSequence formattedText) {
+            if (formattedText == boundText) {
+                return;
             }
+            bind(formattedText);
         }
     }
 }
-
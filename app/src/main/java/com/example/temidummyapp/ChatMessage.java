@@ -1,28 +1,68 @@
 package com.example.temidummyapp;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * 채팅 메시지 데이터 모델
  */
 public class ChatMessage {
     public static final int TYPE_USER = 0;
     public static final int TYPE_BOT = 1;
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
     
     private String message;
     private int type;
     private long timestamp;
+    private transient int version; // 텍스트가 바뀔 때마다 증가 (렌더링 캐시용, 저장 안 함)
+    private final transient long id; // 화면 목록용 고유 id (실행 중에만 유효, 저장 안 함)
+    private transient boolean stored; // 채팅 DB에 저장함 (또는 저장 대기 중)
+    private transient int storedVersion; // 저장한 시점의 version (다르면 갱신 필요)
     
     public ChatMessage(String message, int type) {
         this.message = message;
         this.type = type;
         this.timestamp = System.currentTimeMillis();
+        this.id = NEXT_ID.incrementAndGet();
+    }
+    
+    /**
+     * 목록 안정 id (생성할 때 발급, 여러 스레드에서 읽어도 같은 값)
+     */
+    public long getId() {
+        return id;
     }
     
+    boolean isStored() {
+        return stored;
+    }
+
+    /**
+     * 현재 텍스트를 DB에 저장함 (ChatStorage에서 호출)
+     */
+    void markStored() {
+        stored = true;
+        storedVersion = version;
+    }
+
+    /**
+     * 저장한 뒤 텍스트가 바뀌었는지 (스트리밍으로 채워진 봇 메시지)
+     */
+    boolean isStoredStale() {
+        return stored && storedVersion != version;
+    }
+
     public String getMessage() {
         return message;
     }
     
     public void setMessage(String message) {
         this.message = message;
+        version++;
+    }
+    
+    public int getVersion() {
+        return version;
     }
     
     public int getType() {
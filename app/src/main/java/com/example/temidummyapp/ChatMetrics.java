@@ -0,0 +1,224 @@
+package com.example.temidummyapp;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 챗봇 요청 지표 (응답의 usage 블록 집계)
+ * 프롬프트 크기와 서버 측 프롬프트 캐시 적중률(cached_tokens / prompt_tokens),
+ * 첫 토큰 SLO 초과로 인한 헤지 요청 빈도, 연결 재사용 여부별 첫 토큰 지연을 추적
+ */
+public class ChatMetrics {
+
+    private static final ChatMetrics INSTANCE = new ChatMetrics();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong cachedTokens = new AtomicLong();
+    private final AtomicLong completionTokens = new AtomicLong();
+    private final AtomicLong streams = new AtomicLong();
+    private final AtomicLong hedgesOnTimeout = new AtomicLong();
+    private final AtomicLong hedgesOnError = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong warmFirstTokens = new AtomicLong();
+    private final AtomicLong warmFirstTokenMs = new AtomicLong();
+    private final AtomicLong coldFirstTokens = new AtomicLong();
+    private final AtomicLong coldFirstTokenMs = new AtomicLong();
+    private final AtomicLongArray answerSources = new AtomicLongArray(OpenAIService.AnswerSource.values().length);
+    private volatile Usage lastUsage;
+
+    /**
+     * 요청 1건의 토큰 사용량
+     */
+    public static class Usage {
+        public final int promptTokens;
+        public final int cachedTokens;
+        public final int completionTokens;
+
+        Usage(int promptTokens, int cachedTokens, int completionTokens) {
+            this.promptTokens = promptTokens;
+            this.cachedTokens = cachedTokens;
+            this.completionTokens = completionTokens;
+        }
+
+        /**
+         * 응답 JSON의 usage 객체 파싱 (없거나 null이면 null)
+         */
+        public static Usage fromJson(JsonElement usage) {
+            if (usage == null || !usage.isJsonObject()) {
+                return null;
+            }
+            JsonObject json = usage.getAsJsonObject();
+            int cached = 0;
+            JsonElement details = json.get("prompt_tokens_details");
+            if (details != null && details.isJsonObject()) {
+                cached = intOf(details.getAsJsonObject(), "cached_tokens");
+            }
+            return new Usage(intOf(json, "prompt_tokens"), cached, intOf(json, "completion_tokens"));
+        }
+
+        public double cacheHitRatio() {
+            return promptTokens == 0 ? 0 : (double) cachedTokens / promptTokens;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "prompt=%d (cached=%d, %.0f%%), completion=%d",
+                    promptTokens, cachedTokens, cacheHitRatio() * 100, completionTokens);
+        }
+
+        private static int intOf(JsonObject json, String key) {
+            JsonElement value = json.get(key);
+            return value != null && value.isJsonPrimitive() ? value.getAsInt() : 0;
+        }
+    }
+
+    public static ChatMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private ChatMetrics() {
+    }
+
+    public void record(Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        requests.incrementAndGet();
+        promptTokens.addAndGet(usage.promptTokens);
+        cachedTokens.addAndGet(usage.cachedTokens);
+        completionTokens.addAndGet(usage.completionTokens);
+        lastUsage = usage;
+    }
+
+    public void recordStream() {
+        streams.incrementAndGet();
+    }
+
+    /**
+     * @param afterError true면 원 요청 실패로 인한 헤지, false면 첫 토큰 SLO 초과
+     */
+    public void recordHedge(boolean afterError) {
+        (afterError ? hedgesOnError : hedgesOnTimeout).incrementAndGet();
+    }
+
+    public void recordHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    public long getHedges() {
+        return hedgesOnTimeout.get() + hedgesOnError.get();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * 스트리밍 요청 중 헤지 요청이 시작된 비율
+     */
+    public double getHedgeRate() {
+        long n = streams.get();
+        return n == 0 ? 0 : (double) getHedges() / n;
+    }
+
+    /**
+     * 첫 토큰 지연 기록
+     *
+     * @param warm 미리 맺어둔(또는 이전 요청의) 연결을 재사용했는지
+     */
+    public void recordFirstToken(long ms, boolean warm) {
+        if (warm) {
+            warmFirstTokens.incrementAndGet();
+            warmFirstTokenMs.addAndGet(ms);
+        } else {
+            coldFirstTokens.incrementAndGet();
+            coldFirstTokenMs.addAndGet(ms);
+        }
+    }
+
+    /**
+     * 연결 재사용 요청의 평균 첫 토큰 지연 (ms)
+     */
+    public double getWarmFirstTokenMs() {
+        long n = warmFirstTokens.get();
+        return n == 0 ? 0 : (double) warmFirstTokenMs.get() / n;
+    }
+
+    /**
+     * 새 연결 요청의 평균 첫 토큰 지연 (ms)
+     */
+    public double getColdFirstTokenMs() {
+        long n = coldFirstTokens.get();
+        return n == 0 ? 0 : (double) coldFirstTokenMs.get() / n;
+    }
+
+    public void recordAnswerSource(OpenAIService.AnswerSource source) {
+        answerSources.incrementAndGet(source.ordinal());
+    }
+
+    /**
+     * 해당 엔진이 답변한 횟수
+     */
+    public long getAnswerCount(OpenAIService.AnswerSource source) {
+        return answerSources.get(source.ordinal());
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * 누적 프롬프트 토큰 중 캐시에서 처리된 비율
+     */
+    public double getCacheHitRatio() {
+        long prompt = promptTokens.get();
+        return prompt == 0 ? 0 : (double) cachedTokens.get() / prompt;
+    }
+
+    /**
+     * 요청당 평균 프롬프트 크기 (토큰)
+     */
+    public double getAveragePromptTokens() {
+        long n = requests.get();
+        return n == 0 ? 0 : (double) promptTokens.get() / n;
+    }
+
+    public Usage getLastUsage() {
+        return lastUsage;
+    }
+
+    /**
+     * 모든 누적값 초기화 (관리자 화면의 지표 초기화, ChatTimings와 같은 시점부터 다시 집계)
+     */
+    public void reset() {
+        for (AtomicLong counter : new AtomicLong[]{requests, promptTokens, cachedTokens, completionTokens,
+                streams, hedgesOnTimeout, hedgesOnError, hedgeWins,
+                warmFirstTokens, warmFirstTokenMs, coldFirstTokens, coldFirstTokenMs}) {
+            counter.set(0);
+        }
+        for (int i = 0; i < answerSources.length(); i++) {
+            answerSources.set(i, 0);
+        }
+        lastUsage = null;
+    }
+
+    public String getStats() {
+        return String.format(Locale.US,
+                "Chat usage: %d requests, avg prompt %.0f tokens, cached %.1f%%, completion %d tokens; "
+                        + "hedged %d/%d streams (%.1f%%, timeout %d, error %d, hedge won %d); "
+                        + "TTFT warm %.0f ms (%d), cold %.0f ms (%d); "
+                        + "answers openai %d, faq %d, offline %d",
+                requests.get(), getAveragePromptTokens(), getCacheHitRatio() * 100, completionTokens.get(),
+                getHedges(), streams.get(), getHedgeRate() * 100,
+                hedgesOnTimeout.get(), hedgesOnError.get(), hedgeWins.get(),
+                getWarmFirstTokenMs(), warmFirstTokens.get(), getColdFirstTokenMs(), coldFirstTokens.get(),
+                getAnswerCount(OpenAIService.AnswerSource.OPENAI),
+                getAnswerCount(OpenAIService.AnswerSource.FAQ_CACHE),
+                getAnswerCount(OpenAIService.AnswerSource.OFFLINE));
+    }
+}
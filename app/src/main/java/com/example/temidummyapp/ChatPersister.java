@@ -0,0 +1,82 @@
+package com.example.temidummyapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.List;
+
+/**
+ * 채팅 기록 지연 저장 (write-behind)
+ * 대화가 바뀔 때마다 markDirty()로 표시만 하고, DEBOUNCE_MS 동안 더 바뀌지 않으면 한 번에 저장
+ * 스트리밍처럼 계속 바뀌어도 MAX_DELAY_MS마다는 저장해 앱이 종료돼도 받은 부분이 남음
+ * 실제 DB 쓰기는 ChatStorage의 저장 스레드에서 하므로 flush()는 화면 전환을 막지 않음
+ * 프로세스가 정리될 수 있는 시점(onStop, onTrimMemory)에는 flushAndWait()로 쓰기가 끝날 때까지 잠깐 기다림
+ * 모든 메서드는 메인 스레드에서 호출해야 함
+ */
+public class ChatPersister {
+    private static final long DEBOUNCE_MS = 500;
+    private static final long MAX_DELAY_MS = 3000;
+    // flushAndWait 최대 대기 (보통 수 ms, 느린 저장소에서도 화면 스레드를 오래 막지 않도록 제한)
+    private static final long WAIT_TIMEOUT_MS = 300;
+
+    public interface Source {
+        /**
+         * 저장할 현재 대화 (아직 저장하면 안 되면 null)
+         */
+        List<ChatMessage> snapshot();
+    }
+
+    private final ChatStorage storage;
+    private final Source source;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    private boolean dirty = false;
+    // 저장하지 않은 첫 변경 시각
+    private long dirtySinceMs;
+
+    public ChatPersister(ChatStorage storage, Source source) {
+        this.storage = storage;
+        this.source = source;
+    }
+
+    /**
+     * 대화가 바뀌었음을 표시 (잠시 뒤 모아서 저장)
+     */
+    public void markDirty() {
+        long now = SystemClock.uptimeMillis();
+        if (!dirty) {
+            dirty = true;
+            dirtySinceMs = now;
+        }
+        handler.removeCallbacks(flushRunnable);
+        long delay = Math.min(DEBOUNCE_MS, dirtySinceMs + MAX_DELAY_MS - now);
+        handler.postDelayed(flushRunnable, Math.max(0, delay));
+    }
+
+    /**
+     * 대기 중인 변경을 바로 저장 요청 (화면 이탈, 메모리 부족 시)
+     */
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (!dirty) {
+            return;
+        }
+        List<ChatMessage> messages = source.snapshot();
+        if (messages == null) {
+            // 저장할 수 있게 되면 다시 표시됨
+            return;
+        }
+        dirty = false;
+        storage.saveMessages(messages);
+    }
+
+    /**
+     * 저장 요청 후 DB 쓰기가 끝날 때까지 최대 WAIT_TIMEOUT_MS 대기 (화면이 이미 가려진 뒤에만 호출)
+     */
+    public void flushAndWait() {
+        flush();
+        storage.awaitPendingWrites(WAIT_TIMEOUT_MS);
+    }
+}
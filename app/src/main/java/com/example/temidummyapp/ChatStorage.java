@@ -1,65 +1,447 @@
 package com.example.temidummyapp;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
+import com.example.temidummyapp.db.ChatDatabase;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * 채팅 기록 저장 및 불러오기 클래스
+ * 채팅 기록 저장 및 불러오기 클래스 (SQLite messages 테이블)
+ * 새 메시지는 한 행씩 추가만 하고, 저장 후 바뀐 메시지(스트리밍으로 채워진 봇 메시지)만 갱신하므로
+ * 저장 비용이 대화 길이와 무관함. DB 작업은 전용 스레드에서 순서대로 실행
+ * 저장/삭제는 메인 스레드에서 호출 (메시지의 저장 여부 표시는 메인 스레드에서만 바뀜)
+ *
+ * 방문객이 바뀌면 이전 대화를 이어받지 않도록 세션 단위로 저장
+ * 일정 시간 대화가 없거나, 메인 화면으로 돌아가거나, 한동안 조용하다가 웨이크워드로 들어오면 새 세션 시작
+ * 지난 세션은 SESSION_TTL_MS가 지나거나 MAX_SESSIONS/MAX_STORED_MESSAGES를 넘으면 오래된 것부터 삭제
+ *
+ * 긴 세션도 화면이 바로 뜨도록 최근 메시지부터 PAGE_SIZE개씩 불러옴 (위로 스크롤하면 이전 페이지)
  */
 public class ChatStorage {
+    private static final String TAG = "ChatStorage";
+
     private static final String PREFS_NAME = "chat_storage";
+    // 이전 버전의 전체 기록 JSON (처음 불러올 때 DB로 옮긴 뒤 삭제)
     private static final String KEY_MESSAGES = "messages";
-    
+    private static final String KEY_SESSION = "current_session";
+    // 현재 세션에 마지막으로 메시지를 저장한 시각 (0이면 아직 빈 세션)
+    private static final String KEY_LAST_ACTIVE = "last_active_at";
+
+    // 이 시간 동안 대화가 없으면 다음 방문객으로 보고 새 세션 시작
+    public static final long IDLE_TIMEOUT_MS = 3 * 60 * 1000L;
+    // 웨이크워드로 들어왔을 때는 더 짧게 (방금 대화하던 사람이 다시 부른 경우만 이어감)
+    public static final long WAKE_WORD_IDLE_MS = 30 * 1000L;
+
+    private static final long SESSION_TTL_MS = 7 * 24 * 60 * 60 * 1000L;
+    private static final int MAX_SESSIONS = 200;
+    private static final int MAX_STORED_MESSAGES = 5000;
+
+    // 한 번에 불러오는 메시지 수
+    private static final int PAGE_SIZE = 30;
+
+    // 모든 ChatStorage가 같은 순서로 쓰도록 공유
+    private static final ExecutorService DB_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chat-storage");
+        t.setDaemon(true);
+        return t;
+    });
+    // 화면 목록 id → DB 행 id (DB 스레드에서만 접근)
+    private static final Map<Long, Long> ROW_IDS = new HashMap<>();
+
+    private final Context context;
     private final SharedPreferences prefs;
-    private final Gson gson;
-    
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // 지금까지 불러온 페이지 중 가장 오래된 메시지 (DB 스레드에서만 접근)
+    private long pagedSession = -1;
+    private long oldestLoadedRowId = Long.MAX_VALUE;
+
+    public interface LoadCallback {
+        /**
+         * 저장된 메시지 한 페이지 (저장 순서, 없으면 빈 목록, 메인 스레드에서 호출)
+         *
+         * @param hasOlder 이 페이지보다 오래된 메시지가 더 있는지
+         */
+        void onLoaded(List<ChatMessage> messages, boolean hasOlder);
+    }
+
     public ChatStorage(Context context) {
+        this.context = context.getApplicationContext();
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
     }
-    
+
     /**
-     * 채팅 기록 저장
+     * 채팅 기록 저장 (아직 저장하지 않은 메시지는 추가, 저장 후 바뀐 메시지는 갱신)
+     * 바뀌는 메시지는 끝쪽에만 있으므로 뒤에서부터 이미 저장된 그대로인 메시지가 나올 때까지만 확인
      */
     public void saveMessages(List<ChatMessage> messages) {
-        String json = gson.toJson(messages);
-        prefs.edit().putString(KEY_MESSAGES, json).apply();
+        final List<ChatMessage> inserts = new ArrayList<>();
+        final List<ChatMessage> updates = new ArrayList<>();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (!message.isStored()) {
+                inserts.add(0, message);
+            } else if (message.isStoredStale()) {
+                updates.add(message);
+            } else {
+                break;
+            }
+        }
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+
+        // 지금 텍스트를 복사해 두고 DB 스레드에서는 메시지 객체를 읽지 않음
+        final List<ContentValues> insertValues = new ArrayList<>(inserts.size());
+        final List<Long> insertIds = new ArrayList<>(inserts.size());
+        for (ChatMessage message : inserts) {
+            ContentValues values = new ContentValues();
+            values.put("type", message.getType());
+            values.put("message", message.getMessage());
+            values.put("timestamp", message.getTimestamp());
+            insertValues.add(values);
+            insertIds.add(message.getId());
+            message.markStored();
+        }
+        final List<String> updateTexts = new ArrayList<>(updates.size());
+        final List<Long> updateIds = new ArrayList<>(updates.size());
+        for (ChatMessage message : updates) {
+            updateTexts.add(message.getMessage());
+            updateIds.add(message.getId());
+            message.markStored();
+        }
+        final long session = currentSession();
+        final long now = System.currentTimeMillis();
+        prefs.edit().putLong(KEY_LAST_ACTIVE, now).apply();
+
+        DB_EXECUTOR.execute(() -> {
+            SQLiteDatabase db = ChatDatabase.getInstance(context).getWritableDatabase();
+            db.beginTransaction();
+            try {
+                touchSession(db, session, now, insertValues.size());
+                for (int i = 0; i < insertValues.size(); i++) {
+                    ContentValues values = insertValues.get(i);
+                    values.put("session_id", session);
+                    long rowId = db.insert(ChatDatabase.TABLE_MESSAGES, null, values);
+                    if (rowId != -1) {
+                        ROW_IDS.put(insertIds.get(i), rowId);
+                    }
+                }
+                if (!updateIds.isEmpty()) {
+                    SQLiteStatement update = db.compileStatement(
+                            "UPDATE " + ChatDatabase.TABLE_MESSAGES + " SET message=? WHERE id=?");
+                    for (int i = 0; i < updateIds.size(); i++) {
+                        Long rowId = ROW_IDS.get(updateIds.get(i));
+                        if (rowId == null) {
+                            continue;
+                        }
+                        update.bindString(1, updateTexts.get(i));
+                        update.bindLong(2, rowId);
+                        update.executeUpdateDelete();
+                    }
+                }
+                db.setTransactionSuccessful();
+            } catch (Exception e) {
+                Log.e(TAG, "채팅 기록 저장 실패", e);
+            } finally {
+                db.endTransaction();
+            }
+        });
     }
-    
+
     /**
-     * 채팅 기록 불러오기
+     * 최근 채팅 기록 한 페이지 불러오기 (DB 스레드에서 읽고 메인 스레드로 전달)
      */
-    public List<ChatMessage> loadMessages() {
-        String json = prefs.getString(KEY_MESSAGES, null);
-        if (json == null) {
-            return new ArrayList<>();
-        }
-        
-        Type listType = new TypeToken<ArrayList<ChatMessage>>(){}.getType();
-        List<ChatMessage> messages = gson.fromJson(json, listType);
-        return messages != null ? messages : new ArrayList<>();
+    public void loadMessages(LoadCallback callback) {
+        final long session = currentSession();
+        DB_EXECUTOR.execute(() -> {
+            List<ChatMessage> messages;
+            boolean hasOlder = false;
+            pagedSession = session;
+            oldestLoadedRowId = Long.MAX_VALUE;
+            try {
+                messages = migrateFromPrefs(session);
+                if (messages == null) {
+                    messages = queryPage(session);
+                    hasOlder = messages.size() > PAGE_SIZE;
+                    if (hasOlder) {
+                        messages.remove(0);
+                    }
+                }
+                if (!messages.isEmpty() && lastActiveAt() == 0) {
+                    // 세션 구분 전에 저장된 기록은 마지막 메시지 시각을 활동 시각으로 사용
+                    prefs.edit().putLong(KEY_LAST_ACTIVE, messages.get(messages.size() - 1).getTimestamp()).apply();
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "채팅 기록 불러오기 실패", e);
+                messages = new ArrayList<>();
+            }
+            final List<ChatMessage> loaded = messages;
+            final boolean older = hasOlder;
+            mainHandler.post(() -> callback.onLoaded(loaded, older));
+        });
+    }
+
+    /**
+     * 이미 불러온 메시지보다 오래된 한 페이지 불러오기 (loadMessages 이후, 위로 스크롤할 때)
+     * 그사이 새 세션이 시작됐으면 빈 목록 전달
+     */
+    public void loadOlderMessages(LoadCallback callback) {
+        final long session = currentSession();
+        DB_EXECUTOR.execute(() -> {
+            List<ChatMessage> messages;
+            boolean hasOlder = false;
+            if (session != pagedSession || oldestLoadedRowId == Long.MAX_VALUE) {
+                messages = new ArrayList<>();
+            } else {
+                try {
+                    messages = queryPage(session);
+                    hasOlder = messages.size() > PAGE_SIZE;
+                    if (hasOlder) {
+                        messages.remove(0);
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "이전 채팅 기록 불러오기 실패", e);
+                    messages = new ArrayList<>();
+                }
+            }
+            final List<ChatMessage> loaded = messages;
+            final boolean older = hasOlder;
+            mainHandler.post(() -> callback.onLoaded(loaded, older));
+        });
     }
-    
+
     /**
-     * 채팅 기록 삭제
+     * 채팅 기록 삭제 (현재 세션 메시지를 지우고 새 세션 시작)
      */
     public void clearMessages() {
-        prefs.edit().remove(KEY_MESSAGES).apply();
+        final long session = currentSession();
+        startNewSession("초기화");
+        DB_EXECUTOR.execute(() -> {
+            SQLiteDatabase db = ChatDatabase.getInstance(context).getWritableDatabase();
+            String[] args = {String.valueOf(session)};
+            db.delete(ChatDatabase.TABLE_MESSAGES, "session_id=?", args);
+            db.delete(ChatDatabase.TABLE_SESSIONS, "id=?", args);
+            ROW_IDS.clear();
+        });
     }
-    
+
     /**
-     * 저장된 채팅이 있는지 확인
+     * 새 세션 시작 (현재 세션은 기록으로 남기고, 화면과 요청 컨텍스트는 빈 대화로 시작)
+     * 현재 세션에 저장된 메시지가 없으면 그대로 사용
+     *
+     * @return 새 세션을 시작했는지
      */
-    public boolean hasMessages() {
-        return prefs.contains(KEY_MESSAGES);
+    public boolean startNewSession(String reason) {
+        if (lastActiveAt() == 0) {
+            return false;
+        }
+        final long session = currentSession() + 1;
+        prefs.edit()
+                .putLong(KEY_SESSION, session)
+                .putLong(KEY_LAST_ACTIVE, 0)
+                .apply();
+        Log.d(TAG, "새 세션 시작 (" + reason + "): " + session);
+        DB_EXECUTOR.execute(() -> {
+            // 지난 세션 메시지는 더 이상 갱신하지 않음
+            ROW_IDS.clear();
+            try {
+                evictSessions(ChatDatabase.getInstance(context).getWritableDatabase(), session);
+            } catch (Exception e) {
+                Log.e(TAG, "지난 세션 정리 실패", e);
+            }
+        });
+        return true;
     }
-}
 
+    /**
+     * 마지막 대화 후 idleMs가 지났으면 새 세션 시작
+     *
+     * @return 새 세션을 시작했는지
+     */
+    public boolean startNewSessionIfIdle(long idleMs, String reason) {
+        long lastActive = lastActiveAt();
+        if (lastActive == 0 || System.currentTimeMillis() - lastActive < idleMs) {
+            return false;
+        }
+        return startNewSession(reason);
+    }
 
+    /**
+     * 지금까지 요청한 DB 작업이 끝날 때까지 최대 timeoutMs 기다림 (화면이 이미 가려진 onStop 등에서만 호출)
+     *
+     * @return 제시간에 끝났는지
+     */
+    public boolean awaitPendingWrites(long timeoutMs) {
+        try {
+            DB_EXECUTOR.submit(() -> {
+            }).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            Log.w(TAG, "채팅 기록 저장 대기 시간 초과 (" + timeoutMs + "ms)");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private long currentSession() {
+        return prefs.getLong(KEY_SESSION, 1);
+    }
+
+    private long lastActiveAt() {
+        return prefs.getLong(KEY_LAST_ACTIVE, 0);
+    }
+
+    /**
+     * 세션 행이 없으면 만들고 마지막 활동 시각과 메시지 수 반영
+     */
+    private static void touchSession(SQLiteDatabase db, long session, long now, int added) {
+        db.execSQL("INSERT OR IGNORE INTO " + ChatDatabase.TABLE_SESSIONS +
+                " (id, started_at, last_active_at) VALUES (?, ?, ?)", new Object[]{session, now, now});
+        db.execSQL("UPDATE " + ChatDatabase.TABLE_SESSIONS +
+                " SET last_active_at=?, message_count=message_count+? WHERE id=?", new Object[]{now, added, session});
+    }
+
+    /**
+     * 기한이 지난 세션, 최근 MAX_SESSIONS개 또는 최근 MAX_STORED_MESSAGES개 메시지 밖의 세션 삭제
+     */
+    private static void evictSessions(SQLiteDatabase db, long current) {
+        long expiredBefore = System.currentTimeMillis() - SESSION_TTL_MS;
+        List<Long> evicted = new ArrayList<>();
+        int kept = 0;
+        int keptMessages = 0;
+        try (Cursor cursor = db.rawQuery("SELECT id, last_active_at, message_count FROM " + ChatDatabase.TABLE_SESSIONS
+                + " WHERE id<>? ORDER BY last_active_at DESC", new String[]{String.valueOf(current)})) {
+            while (cursor.moveToNext()) {
+                int count = cursor.getInt(2);
+                if (cursor.getLong(1) < expiredBefore
+                        || kept >= MAX_SESSIONS
+                        || keptMessages + count > MAX_STORED_MESSAGES) {
+                    evicted.add(cursor.getLong(0));
+                } else {
+                    kept++;
+                    keptMessages += count;
+                }
+            }
+        }
+        if (evicted.isEmpty()) {
+            return;
+        }
+        StringBuilder ids = new StringBuilder();
+        for (Long id : evicted) {
+            if (ids.length() > 0) {
+                ids.append(',');
+            }
+            ids.append(id);
+        }
+        deleteSessions(db, "id IN (" + ids + ")");
+        Log.d(TAG, "지난 세션 " + evicted.size() + "개 삭제");
+    }
+
+    /**
+     * 조건에 맞는 세션과 그 메시지를 함께 삭제
+     */
+    private static void deleteSessions(SQLiteDatabase db, String where, String... args) {
+        db.beginTransaction();
+        try {
+            db.execSQL("DELETE FROM " + ChatDatabase.TABLE_MESSAGES + " WHERE session_id IN (SELECT id FROM "
+                    + ChatDatabase.TABLE_SESSIONS + " WHERE " + where + ")", args);
+            db.delete(ChatDatabase.TABLE_SESSIONS, where, args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * oldestLoadedRowId 이전 메시지를 최근 것부터 PAGE_SIZE + 1개 읽어 저장 순서로 반환
+     * (하나 더 읽어 이전 페이지가 있는지 판단, 그 메시지는 호출부에서 제거)
+     */
+    private List<ChatMessage> queryPage(long session) {
+        SQLiteDatabase db = ChatDatabase.getInstance(context).getReadableDatabase();
+        List<ChatMessage> messages = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("SELECT id, type, message, timestamp FROM " + ChatDatabase.TABLE_MESSAGES
+                        + " WHERE session_id=? AND id<? ORDER BY id DESC LIMIT " + (PAGE_SIZE + 1),
+                new String[]{String.valueOf(session), String.valueOf(oldestLoadedRowId)})) {
+            while (cursor.moveToNext()) {
+                ChatMessage message = new ChatMessage(cursor.getString(2), cursor.getInt(1));
+                message.setTimestamp(cursor.getLong(3));
+                message.markStored();
+                messages.add(0, message);
+                if (messages.size() <= PAGE_SIZE) {
+                    long rowId = cursor.getLong(0);
+                    ROW_IDS.put(message.getId(), rowId);
+                    oldestLoadedRowId = rowId;
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * SharedPreferences JSON으로 저장된 이전 기록을 DB로 옮김 (옮길 기록이 없으면 null)
+     */
+    private List<ChatMessage> migrateFromPrefs(long session) {
+        String json = prefs.getString(KEY_MESSAGES, null);
+        if (json == null) {
+            return null;
+        }
+        Type listType = new TypeToken<ArrayList<ChatMessage>>(){}.getType();
+        List<ChatMessage> parsed = new Gson().fromJson(json, listType);
+        // Gson은 생성자를 거치지 않아 목록 id가 없으므로 새로 만듦
+        List<ChatMessage> messages = new ArrayList<>();
+        if (parsed != null) {
+            for (ChatMessage old : parsed) {
+                ChatMessage message = new ChatMessage(old.getMessage() != null ? old.getMessage() : "", old.getType());
+                message.setTimestamp(old.getTimestamp());
+                messages.add(message);
+            }
+        }
+
+        SQLiteDatabase db = ChatDatabase.getInstance(context).getWritableDatabase();
+        db.beginTransaction();
+        try {
+            long now = System.currentTimeMillis();
+            touchSession(db, session, now, messages.size());
+            for (ChatMessage message : messages) {
+                ContentValues values = new ContentValues();
+                values.put("session_id", session);
+                values.put("type", message.getType());
+                values.put("message", message.getMessage());
+                values.put("timestamp", message.getTimestamp());
+                ROW_IDS.put(message.getId(), db.insert(ChatDatabase.TABLE_MESSAGES, null, values));
+                message.markStored();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        prefs.edit().remove(KEY_MESSAGES).commit();
+        Log.d(TAG, "이전 채팅 기록 " + messages.size() + "개를 DB로 옮김");
+        return messages;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.temidummyapp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okio.BufferedSource;
+
+/**
+ * Chat Completions SSE 스트림 파서 (할당 최소화 버전)
+ * BufferedSource에서 한 줄씩 재사용 버퍼로 읽고, JSON 트리를 만들지 않고
+ * choices[0].delta.content 문자열만 직접 스캔해 디코딩함
+ *
+ * UTF-8 처리: 항상 '\n'까지의 완전한 줄 단위로 디코딩하므로 네트워크 청크 경계에서
+ * 잘린 멀티바이트 문자는 BufferedSource 안에 남아 있다가 다음 읽기에서 이어짐
+ */
+public class ChatStreamParser {
+    /** 스트림 끝 (연결 종료) */
+    public static final int END = -1;
+    /** data: [DONE] */
+    public static final int DONE = 0;
+    /** delta.content 문자열 (content()로 조회) */
+    public static final int CONTENT = 1;
+    /** content가 없는 data 이벤트 (role만 있는 첫 청크, finish_reason 청크 등, payload()로 조회) */
+    public static final int OTHER = 2;
+
+    private static final byte[] DATA_PREFIX = {'d', 'a', 't', 'a', ':'};
+    private static final byte[] DONE_MARKER = {'[', 'D', 'O', 'N', 'E', ']'};
+    private static final byte[] CONTENT_KEY = {'"', 'c', 'o', 'n', 't', 'e', 'n', 't', '"'};
+
+    private final BufferedSource source;
+    private byte[] line = new byte[4096];
+    private int lineLength;
+    private int payloadStart;
+    private final StringBuilder text = new StringBuilder(64);
+    private String content = "";
+
+    public ChatStreamParser(BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * 다음 data 이벤트까지 읽음
+     *
+     * @return END, DONE, CONTENT, OTHER 중 하나
+     */
+    public int next() throws IOException {
+        while (readLine()) {
+            int start = dataPayloadStart();
+            if (start < 0) {
+                continue; // 빈 줄, 주석(:), event:/id: 필드
+            }
+            payloadStart = start;
+            if (regionEquals(start, DONE_MARKER) && lineLength - start == DONE_MARKER.length) {
+                return DONE;
+            }
+            if (scanContent(start)) {
+                return CONTENT;
+            }
+            return OTHER;
+        }
+        return END;
+    }
+
+    /**
+     * 마지막 CONTENT 이벤트의 텍스트
+     */
+    public String content() {
+        return content;
+    }
+
+    /**
+     * 마지막 이벤트의 원본 JSON (드문 경로용, 호출할 때만 문자열 생성)
+     */
+    public String payload() {
+        return new String(line, payloadStart, lineLength - payloadStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * '\n'까지 한 줄을 재사용 버퍼로 읽음 (끝의 '\r' 제거)
+     */
+    private boolean readLine() throws IOException {
+        long newline = source.indexOf((byte) '\n');
+        long length;
+        if (newline == -1) {
+            // 마지막 줄에 개행이 없는 경우
+            if (source.exhausted()) {
+                return false;
+            }
+            length = source.getBuffer().size();
+        } else {
+            length = newline;
+        }
+
+        int n = (int) length;
+        if (n > line.length) {
+            line = new byte[Math.max(n, line.length * 2)];
+        }
+        int read = 0;
+        while (read < n) {
+            int r = source.read(line, read, n - read);
+            if (r == -1) {
+                break;
+            }
+            read += r;
+        }
+        if (newline != -1) {
+            source.skip(1);
+        }
+        if (read > 0 && line[read - 1] == '\r') {
+            read--;
+        }
+        lineLength = read;
+        return true;
+    }
+
+    /**
+     * "data:" 줄이면 값 시작 위치, 아니면 -1
+     */
+    private int dataPayloadStart() {
+        if (!regionEquals(0, DATA_PREFIX)) {
+            return -1;
+        }
+        int start = DATA_PREFIX.length;
+        if (start < lineLength && line[start] == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private boolean regionEquals(int offset, byte[] expected) {
+        if (offset + expected.length > lineLength) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (line[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * "content": 다음의 JSON 문자열을 찾아 디코딩 (null이거나 없으면 false)
+     */
+    private boolean scanContent(int from) {
+        int last = lineLength - CONTENT_KEY.length;
+        for (int i = from; i <= last; i++) {
+            if (line[i] != '"' || !regionEquals(i, CONTENT_KEY)) {
+                continue;
+            }
+            int p = i + CONTENT_KEY.length;
+            while (p < lineLength && (line[p] == ' ' || line[p] == ':')) {
+                p++;
+            }
+            if (p >= lineLength || line[p] != '"') {
+                return false; // "content": null
+            }
+            return decodeString(p + 1);
+        }
+        return false;
+    }
+
+    /**
+     * JSON 문자열 본문을 text 버퍼에 디코딩 (이스케이프 + UTF-8)
+     */
+    private boolean decodeString(int p) {
+        text.setLength(0);
+        while (p < lineLength) {
+            int b = line[p] & 0xFF;
+            if (b == '"') {
+                content = text.toString();
+                return true;
+            }
+            if (b == '\\') {
+                if (p + 1 >= lineLength) {
+                    return false;
+                }
+                char esc = (char) line[p + 1];
+                p += 2;
+                switch (esc) {
+                    case 'n': text.append('\n'); break;
+                    case 't': text.append('\t'); break;
+                    case 'r': text.append('\r'); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'u':
+                        if (p + 4 > lineLength) {
+                            return false;
+                        }
+                        int code = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int digit = Character.digit(line[p + k], 16);
+                            if (digit < 0) {
+                                return false;
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        // 서로게이트 쌍(\\ud83d\\ude00)은 두 char가 순서대로 붙어 올바른 문자가 됨
+                        text.append((char) code);
+                        p += 4;
+                        break;
+                    default: text.append(esc); break; // \" \\ \/
+                }
+                continue;
+            }
+            if (b < 0x80) {
+                text.append((char) b);
+                p++;
+                continue;
+            }
+
+            // UTF-8 멀티바이트 시퀀스
+            int extra;
+            int codePoint;
+            if ((b & 0xE0) == 0xC0) {
+                extra = 1;
+                codePoint = b & 0x1F;
+            } else if ((b & 0xF0) == 0xE0) {
+                extra = 2;
+                codePoint = b & 0x0F;
+            } else if ((b & 0xF8) == 0xF0) {
+                extra = 3;
+                codePoint = b & 0x07;
+            } else {
+                text.append('\uFFFD');
+                p++;
+                continue;
+            }
+            if (p + extra >= lineLength) {
+                return false;
+            }
+            for (int k = 1; k <= extra; k++) {
+                codePoint = (codePoint << 6) | (line[p + k] & 0x3F);
+            }
+            text.appendCodePoint(codePoint);
+            p += extra + 1;
+        }
+        return false; // 닫는 따옴표 없음 (잘린 줄)
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.temidummyapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 채팅 요청 구간별 시간/크기 히스토그램 모음
+ * 느린 원인이 네트워크(헤더 대기), 모델(첫 토큰, 토큰 간격), UI(프레임 반영) 중 어디인지 구분하기 위함
+ * 기록은 락 없이 원자 연산만 사용하므로 스트리밍 스레드와 메인 스레드에서 자유롭게 호출 가능
+ */
+public final class ChatTimings {
+    private static final String TAG = "ChatTimings";
+
+    /**
+     * 기록 항목 (단위는 항목별로 고정)
+     */
+    public enum Metric {
+        REQUEST_BUILD("요청 생성", "us"),
+        REQUEST_BYTES("요청 크기", "B"),
+        RATE_LIMIT_WAIT("한도 대기", "ms"),
+        RESPONSE_HEADERS("응답 헤더까지", "ms"),
+        FIRST_TOKEN("첫 토큰까지", "ms"),
+        INTER_TOKEN("토큰 간격", "ms"),
+        TOTAL("전체 응답", "ms"),
+        TOKENS_PER_SECOND("생성 속도", "tok/s"),
+        UI_FLUSH("화면 반영 지연", "ms"),
+        PROMPT_TOKENS("프롬프트 토큰", "tok"),
+        COMPLETION_TOKENS("응답 토큰", "tok");
+
+        public final String label;
+        public final String unit;
+
+        Metric(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * 로그-선형 버킷 히스토그램
+     * 0~15는 값 그대로, 그 이상은 2배 구간마다 8개 버킷 (상대 오차 12.5% 이내)
+     */
+    public static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int LINEAR = SUB_COUNT * 2;
+        private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_COUNT;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) {
+                // 측정되지 않은 값 (-1 등)은 무시
+                return;
+            }
+            counts.incrementAndGet(bucketOf(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // 다른 스레드가 먼저 갱신했으면 다시 비교
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getMean() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) sum.get() / n;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * 백분위 값 (해당 버킷의 상한, 최댓값을 넘지 않음)
+         *
+         * @param percentile 0~100
+         */
+        public long getPercentile(double percentile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int bucketOf(long value) {
+            if (value < LINEAR) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BITS;
+            int sub = (int) (value >>> shift) - SUB_COUNT;
+            return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < LINEAR) {
+                return bucket;
+            }
+            int exponent = (bucket - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+            int sub = (bucket - LINEAR) % SUB_COUNT;
+            int shift = exponent - SUB_BITS;
+            return ((long) (SUB_COUNT + sub + 1) << shift) - 1;
+        }
+    }
+
+    private static final Histogram[] HISTOGRAMS = new Histogram[Metric.values().length];
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new Histogram();
+        }
+    }
+
+    private ChatTimings() {
+    }
+
+    public static void record(Metric metric, long value) {
+        HISTOGRAMS[metric.ordinal()].record(value);
+    }
+
+    public static Histogram get(Metric metric) {
+        return HISTOGRAMS[metric.ordinal()];
+    }
+
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * 관리자 화면용 요약 (항목별 건수, 평균, p50/p90/p99, 최대)
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (Metric metric : Metric.values()) {
+            Histogram h = get(metric);
+            report.append(metric.label).append(" (").append(metric.unit).append(")\n");
+            if (h.getCount() == 0) {
+                report.append("  기록 없음\n");
+                continue;
+            }
+            report.append(String.format(Locale.US, "  n=%d  avg=%.1f  p50=%d  p90=%d  p99=%d  max=%d\n",
+                    h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(90),
+                    h.getPercentile(99), h.getMax()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * 전체 히스토그램을 CSV로 저장 (앱 전용 외부 저장소, adb pull로 회수)
+     * 요약 행 뒤에 0이 아닌 버킷을 (상한, 건수)로 기록
+     *
+     * @return 저장된 파일
+     */
+    public static File export(Context context) throws IOException {
+        File dir = context.getExternalFilesDir(null);
+        if (dir == null) {
+            dir = context.getFilesDir();
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "chat_timings_" + stamp + ".csv");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("metric,unit,count,mean,p50,p90,p99,max\n");
+            for (Metric metric : Metric.values()) {
+                Histogram h = get(metric);
+                writer.write(String.format(Locale.US, "%s,%s,%d,%.2f,%d,%d,%d,%d\n",
+                        metric.name(), metric.unit, h.getCount(), h.getMean(), h.getPercentile(50),
+                        h.getPercentile(90), h.getPercentile(99), h.getMax()));
+            }
+            writer.write("\nmetric,bucket_upper,count\n");
+            for (Metric metric : Metric.values()) {
+                Histogram h = get(metric);
+                for (int i = 0; i < Histogram.BUCKETS; i++) {
+                    long n = h.counts.get(i);
+                    if (n > 0) {
+                        writer.write(metric.name() + "," + Histogram.upperBound(i) + "," + n + "\n");
+                    }
+                }
+            }
+        }
+        Log.d(TAG, "채팅 지표 저장: " + file.getAbsolutePath());
+        return file;
+    }
+}
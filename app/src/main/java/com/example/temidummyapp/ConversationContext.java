@@ -0,0 +1,203 @@
+package com.example.temidummyapp;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 대화 기록 컨텍스트 관리자
+ * 최근 대화만 토큰 예산 안에서 그대로 보내고, 예산을 넘는 오래된 대화는 요약 메시지로 접음
+ * 요약은 백그라운드에서 점진적으로 (이전 요약 + 새로 접힌 대화) 다시 생성
+ */
+public class ConversationContext {
+    private static final String TAG = "ConversationContext";
+
+    // 메시지당 role/구분자 오버헤드 (대략값)
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    // 요약이 아직 생성되지 않은 대화를 임시로 넣을 때 메시지당 최대 글자 수
+    private static final int PENDING_SNIPPET_CHARS = 80;
+
+    private final int tokenBudget;
+    private final Summarizer summarizer;
+
+    // 요약 상태 (summarizedCount개의 앞쪽 메시지가 summary에 반영됨)
+    private String summary;
+    private int summarizedCount = 0;
+    private long summarizedLastTimestamp = 0;
+    private boolean summarizing = false;
+    private int generation = 0;
+
+    /**
+     * 요약 생성기 (보통 OpenAI 비스트리밍 요청)
+     */
+    public interface Summarizer {
+        void summarize(String previousSummary, List<ChatMessage> turns, SummaryCallback callback);
+    }
+
+    public interface SummaryCallback {
+        /**
+         * @param summary 새 요약 (실패 시 null)
+         */
+        void onSummary(String summary);
+    }
+
+    /**
+     * 요청에 넣을 대화 창
+     */
+    public static class Window {
+        public final String summary;
+        public final List<ChatMessage> recent;
+
+        Window(String summary, List<ChatMessage> recent) {
+            this.summary = summary;
+            this.recent = recent;
+        }
+    }
+
+    public ConversationContext(int tokenBudget, Summarizer summarizer) {
+        this.tokenBudget = tokenBudget;
+        this.summarizer = summarizer;
+    }
+
+    /**
+     * 메시지 토큰 수 추정
+     * 한글 등 비ASCII 문자는 1자당 1토큰, ASCII는 4자당 1토큰으로 보수적으로 계산
+     */
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return other + (ascii + 3) / 4;
+    }
+
+    public static int estimateTokens(ChatMessage message) {
+        return MESSAGE_OVERHEAD_TOKENS + estimateTokens(message.getMessage());
+    }
+
+    /**
+     * 토큰 예산에 맞는 최근 대화 창 계산
+     * 마지막 메시지는 예산과 관계없이 항상 포함
+     */
+    public synchronized Window window(List<ChatMessage> messages) {
+        // 스트리밍 대기 중인 빈 봇 메시지 등은 제외
+        List<ChatMessage> turns = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            if (message.getMessage() != null && !message.getMessage().isEmpty()) {
+                turns.add(message);
+            }
+        }
+
+        int cut = turns.size();
+        int used = 0;
+        while (cut > 0) {
+            int cost = estimateTokens(turns.get(cut - 1));
+            if (cut < turns.size() && used + cost > tokenBudget) {
+                break;
+            }
+            used += cost;
+            cut--;
+        }
+
+        List<ChatMessage> recent = Collections.unmodifiableList(new ArrayList<>(turns.subList(cut, turns.size())));
+        if (cut == 0) {
+            return new Window(null, recent);
+        }
+
+        List<ChatMessage> folded = turns.subList(0, cut);
+        invalidateIfHistoryChanged(folded);
+
+        if (summarizedCount < cut) {
+            requestSummary(new ArrayList<>(folded.subList(summarizedCount, cut)), cut);
+        }
+
+        return new Window(buildSummaryText(folded), recent);
+    }
+
+    /**
+     * 요약 상태 초기화 (채팅 초기화 시)
+     */
+    public synchronized void reset() {
+        summary = null;
+        summarizedCount = 0;
+        summarizedLastTimestamp = 0;
+        summarizing = false;
+        generation++;
+    }
+
+    /**
+     * 기존 요약이 현재 대화와 다른 기록(초기화, 다른 세션 복원)을 기준으로 만들어졌으면 폐기
+     */
+    private void invalidateIfHistoryChanged(List<ChatMessage> folded) {
+        if (summarizedCount == 0) {
+            return;
+        }
+        if (summarizedCount > folded.size()
+                || folded.get(summarizedCount - 1).getTimestamp() != summarizedLastTimestamp) {
+            Log.d(TAG, "대화 기록이 바뀌어 요약 초기화");
+            reset();
+        }
+    }
+
+    private void requestSummary(List<ChatMessage> newTurns, int targetCount) {
+        if (summarizing || summarizer == null) {
+            return;
+        }
+        summarizing = true;
+        final int requestGeneration = generation;
+        final long lastTimestamp = newTurns.get(newTurns.size() - 1).getTimestamp();
+
+        Log.d(TAG, "대화 요약 갱신 요청: " + newTurns.size() + "개 메시지");
+        summarizer.summarize(summary, newTurns, result -> {
+            synchronized (ConversationContext.this) {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                summarizing = false;
+                if (result != null && !result.trim().isEmpty()) {
+                    summary = result.trim();
+                    summarizedCount = targetCount;
+                    summarizedLastTimestamp = lastTimestamp;
+                    Log.d(TAG, "대화 요약 갱신 완료 (" + estimateTokens(summary) + " 토큰)");
+                }
+            }
+        });
+    }
+
+    /**
+     * 요약 메시지 본문 생성
+     * 요약이 아직 따라오지 못한 메시지는 사용자 질문 앞부분만 임시로 덧붙임
+     */
+    private String buildSummaryText(List<ChatMessage> folded) {
+        StringBuilder text = new StringBuilder();
+        if (summary != null) {
+            text.append(summary);
+        }
+        for (int i = summarizedCount; i < folded.size(); i++) {
+            ChatMessage message = folded.get(i);
+            if (!message.isUser()) {
+                continue;
+            }
+            String snippet = message.getMessage();
+            if (snippet.length() > PENDING_SNIPPET_CHARS) {
+                snippet = snippet.substring(0, PENDING_SNIPPET_CHARS) + "…";
+            }
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append("- 이전 질문: ").append(snippet);
+        }
+        return text.length() > 0 ? text.toString() : null;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.temidummyapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 자주 묻는 질문 답변 캐시
+ * 정규화된 질문의 문자 2-gram 유사도로 비슷한 질문을 찾아 저장된 답변을 바로 돌려줌
+ * 항목별 TTL + LRU 제거, 파일(filesDir/faq_cache.json)에 저장
+ */
+public class FaqAnswerCache {
+    private static final String TAG = "FaqAnswerCache";
+    private static final String FILE_NAME = "faq_cache.json";
+
+    private static final int MAX_ENTRIES = 200;
+    private static final long DEFAULT_TTL_MS = TimeUnit.HOURS.toMillis(6);
+    // 긴 질문은 핵심 단어 하나가 달라도 유사도가 높으므로 엄격하게
+    private static final double DEFAULT_THRESHOLD = 0.85;
+    // 관람 대상/연령 단어는 유사도와 별개로 같아야 함 ("초등학생이 할 수 있는 …" / "중학생이 할 수 있는 …")
+    private static final String[] QUALIFIER_WORDS = {
+            "초등", "저학년", "고학년", "중학", "고등", "대학", "성인", "어른", "유아", "유치원", "어린이", "부모", "가족",
+            "elementary", "middleschool", "highschool", "adult", "kid", "child", "parent", "family"
+    };
+
+    private static FaqAnswerCache instance;
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "faq-cache");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // accessOrder=true → 조회할 때마다 가장 최근 항목으로 이동 (LRU)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private volatile double threshold = DEFAULT_THRESHOLD;
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+
+    /**
+     * 캐시 항목 (파일 저장용)
+     */
+    static class Entry {
+        String question;
+        String answer;
+        long createdAt;
+        transient Set<String> grams;
+    }
+
+    public static synchronized FaqAnswerCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new FaqAnswerCache(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    // 테스트에서 임시 파일로 생성
+    FaqAnswerCache(File file) {
+        this.file = file;
+        ioExecutor.execute(this::load);
+    }
+
+    /**
+     * 유사도 임계값 설정 (0~1, 높을수록 엄격)
+     */
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * 항목 유효 시간 설정
+     */
+    public void setTtl(long ttl, TimeUnit unit) {
+        this.ttlMs = unit.toMillis(ttl);
+    }
+
+    /**
+     * 비슷한 질문의 저장된 답변 조회
+     *
+     * @return 저장된 답변 (없으면 null)
+     */
+    public String lookup(String question) {
+        String key = normalize(question);
+        if (key.isEmpty()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Set<String> grams = bigrams(key);
+        String digits = digitsOf(key);
+        String qualifiers = qualifiersOf(key);
+        long now = System.currentTimeMillis();
+
+        Entry best = null;
+        String bestKey = null;
+        double bestScore = 0;
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                Entry entry = e.getValue();
+                if (now - entry.createdAt > ttlMs) {
+                    it.remove();
+                    continue;
+                }
+                // "B04 어디야" / "B05 어디야"처럼 숫자만 다른 질문은 다른 질문으로 취급
+                if (!digits.equals(digitsOf(e.getKey()))) {
+                    continue;
+                }
+                if (!qualifiers.equals(qualifiersOf(e.getKey()))) {
+                    continue;
+                }
+                double score = dice(grams, entry.grams);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = entry;
+                    bestKey = e.getKey();
+                }
+            }
+            if (best != null && bestScore >= threshold) {
+                entries.get(bestKey); // LRU 순서 갱신
+                hits.incrementAndGet();
+                Log.d(TAG, String.format(Locale.US, "캐시 적중 (%.2f): %s → %s", bestScore, question, best.question));
+                return best.answer;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 답변 저장
+     */
+    public void put(String question, String answer) {
+        String key = normalize(question);
+        if (key.isEmpty() || answer == null || answer.trim().isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.question = question;
+        entry.answer = answer;
+        entry.createdAt = System.currentTimeMillis();
+        entry.grams = bigrams(key);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        ioExecutor.execute(this::save);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        ioExecutor.execute(this::save);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public String getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return String.format(Locale.US, "FAQ cache: %d entries, %d hits / %d misses (%.1f%%)",
+                size, hits.get(), misses.get(), getHitRate() * 100);
+    }
+
+    /**
+     * 질문 정규화: 소문자 + 문자/숫자만 남김 (공백, 문장부호, 이모지 제거)
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Set<String> bigrams(String key) {
+        Set<String> grams = new HashSet<>();
+        if (key.length() == 1) {
+            grams.add(key);
+        }
+        for (int i = 0; i + 2 <= key.length(); i++) {
+            grams.add(key.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static String digitsOf(String key) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.isDigit(key.charAt(i))) {
+                sb.append(key.charAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 질문에 들어 있는 관람 대상/연령 단어 (QUALIFIER_WORDS 순서로 이어 붙임)
+     */
+    private static String qualifiersOf(String key) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : QUALIFIER_WORDS) {
+            if (key.contains(word)) {
+                sb.append(word).append('|');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Dice 계수: 2|A∩B| / (|A|+|B|)
+     */
+    private static double dice(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int common = 0;
+        for (String gram : smaller) {
+            if (larger.contains(gram)) {
+                common++;
+            }
+        }
+        return 2.0 * common / (a.size() + b.size());
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Type listType = new TypeToken<ArrayList<Entry>>() {}.getType();
+            List<Entry> saved = gson.fromJson(reader, listType);
+            if (saved == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                for (Entry entry : saved) {
+                    if (entry.question == null || entry.answer == null || now - entry.createdAt > ttlMs) {
+                        continue;
+                    }
+                    String key = normalize(entry.question);
+                    entry.grams = bigrams(key);
+                    if (!entries.containsKey(key)) {
+                        entries.put(key, entry);
+                    }
+                }
+            }
+            Log.d(TAG, "FAQ 캐시 불러옴: " + saved.size() + "개");
+        } catch (Exception e) {
+            Log.w(TAG, "FAQ 캐시 불러오기 실패: " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, writer);
+        } catch (Exception e) {
+            Log.w(TAG, "FAQ 캐시 저장 실패: " + e.getMessage());
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "FAQ 캐시 파일 교체 실패");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.temidummyapp;
+
+import java.util.List;
+
+/**
+ * 문자 종류(한글/라틴)만 세는 로컬 언어 판별기 (모델 호출 없이 프롬프트 언어 선택용)
+ * 한국어 질문에도 AI, VR 같은 영어 단어가 섞이므로 한글 한 글자를 라틴 문자 여러 개로 쳐서 비교
+ */
+public final class LanguageDetector {
+
+    public enum Language {
+        KO, EN
+    }
+
+    // 한글 1글자 ≈ 라틴 문자 3개 (음절 하나가 영어 단어 길이의 절반 정도 정보를 가짐)
+    private static final int HANGUL_WEIGHT = 3;
+    // 영어로 보려면 최소 이만큼의 라틴 문자가 필요 ("ok", "hi" 같은 짧은 답은 판단 보류)
+    private static final int MIN_LATIN_LETTERS = 3;
+
+    private LanguageDetector() {
+    }
+
+    /**
+     * 텍스트 언어 판별 (글자가 부족해 판단할 수 없으면 null)
+     */
+    public static Language detect(String text) {
+        if (text == null) {
+            return null;
+        }
+        int hangul = 0;
+        int latin = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isHangul(c)) {
+                hangul++;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                latin++;
+            }
+        }
+        if (hangul > 0 && hangul * HANGUL_WEIGHT >= latin) {
+            return Language.KO;
+        }
+        if (latin >= MIN_LATIN_LETTERS) {
+            return Language.EN;
+        }
+        return hangul > 0 ? Language.KO : null;
+    }
+
+    /**
+     * 대화 언어 판별: 가장 최근 사용자 발화부터 거슬러 올라가며 판단 가능한 첫 발화 기준 (없으면 한국어)
+     */
+    public static Language detect(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (!message.isUser()) {
+                continue;
+            }
+            Language language = detect(message.getMessage());
+            if (language != null) {
+                return language;
+            }
+        }
+        return Language.KO;
+    }
+
+    private static boolean isHangul(char c) {
+        return (c >= '가' && c <= '힣') // 완성형 음절
+                || (c >= 'ᄀ' && c <= 'ᇿ') // 자모
+                || (c >= '㄰' && c <= '㆏'); // 호환 자모 (ㅋㅋ 등)
+    }
+}
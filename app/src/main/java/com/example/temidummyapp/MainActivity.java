@@ -500,6 +500,11 @@ public class MainActivity extends BaseActivity implements OnGoToLocationStatusCh
     @Override
     protected void onResume() {
         super.onResume();
+        // 채팅 화면에서 메인 화면으로 돌아오면 다음 방문객은 빈 대화로 시작
+        // (첫 실행, 다른 화면/대화상자에서 돌아온 경우는 제외)
+        if (ChatActivity.consumeClosed()) {
+            new ChatStorage(this).startNewSession("메인 화면 복귀");
+        }
         // MainActivity로 돌아올 때 버튼이 ON 상태였으면 다시 시작
         if (isWakeWordEnabled) {
             startWakeWordService();
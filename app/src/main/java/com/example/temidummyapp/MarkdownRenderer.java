@@ -0,0 +1,160 @@
+package com.example.temidummyapp;
+
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.text.style.StrikethroughSpan;
+import android.text.style.StyleSpan;
+
+/**
+ * 채팅 메시지용 마크다운 렌더러 (정규식 없는 단일 패스 토크나이저)
+ * **텍스트** -> 볼드, ~~텍스트~~ -> 취소선, *텍스트* -> 이탤릭
+ * 마크는 줄을 넘지 않으므로 줄바꿈을 안정된 경계로 사용해,
+ * 스트리밍으로 텍스트가 뒤에 덧붙을 때는 마지막 줄바꿈 이후만 다시 파싱함
+ */
+public class MarkdownRenderer {
+
+    private static final int STYLE_BOLD = 0;
+    private static final int STYLE_STRIKE = 1;
+    private static final int STYLE_ITALIC = 2;
+
+    /**
+     * 메시지 하나의 렌더링 상태
+     * 같은 버전이면 이전 결과를 그대로 돌려줌
+     */
+    public static class Document {
+        private final SpannableStringBuilder out = new SpannableStringBuilder();
+        private String source = "";
+        // source[0, stableSourceEnd)는 완성된 줄이고 out[0, stableOutEnd)에 렌더링되어 있음
+        private int stableSourceEnd = 0;
+        private int stableOutEnd = 0;
+        private int version = -1;
+        private CharSequence rendered = "";
+
+        /**
+         * 텍스트 렌더링
+         *
+         * @param version 메시지 버전 (같으면 캐시된 결과 반환)
+         */
+        public CharSequence render(String text, int version) {
+            if (text == null) {
+                text = "";
+            }
+            if (version == this.version && text.equals(source)) {
+                return rendered;
+            }
+
+            // 이어붙인 텍스트가 아니면 (오류 메시지로 교체 등) 처음부터 다시 파싱
+            if (text.length() < stableSourceEnd || !text.regionMatches(0, source, 0, stableSourceEnd)) {
+                out.clear();
+                out.clearSpans();
+                stableSourceEnd = 0;
+                stableOutEnd = 0;
+            }
+
+            out.delete(stableOutEnd, out.length());
+            int pos = stableSourceEnd;
+            while (pos < text.length()) {
+                int newline = text.indexOf('\n', pos);
+                if (newline < 0) {
+                    parseInline(text, pos, text.length(), out);
+                    break;
+                }
+                parseInline(text, pos, newline, out);
+                out.append('\n');
+                pos = newline + 1;
+                stableSourceEnd = pos;
+                stableOutEnd = out.length();
+            }
+
+            source = text;
+            this.version = version;
+            // SpannedString은 TextView.setText에서 다시 복사되지 않음
+            rendered = out.getSpans(0, out.length(), Object.class).length == 0
+                    ? out.toString()
+                    : new SpannedString(out);
+            return rendered;
+        }
+    }
+
+    /**
+     * 한 번만 렌더링할 때 사용
+     */
+    public static CharSequence render(String text) {
+        return new Document().render(text, 0);
+    }
+
+    /**
+     * 한 줄(줄바꿈 없는 구간) 안의 마크를 찾아 out에 덧붙임
+     * 닫는 마크가 없으면 글자 그대로 출력 (스트리밍 중 아직 닫히지 않은 마크 포함)
+     */
+    private static void parseInline(String src, int start, int end, SpannableStringBuilder out) {
+        int plainStart = start;
+        int i = start;
+        while (i < end) {
+            char c = src.charAt(i);
+            int style = -1;
+            int markLength = 0;
+            int close = -1;
+
+            if ((c == '*' || c == '~') && i + 1 < end && src.charAt(i + 1) == c) {
+                markLength = 2;
+                style = c == '*' ? STYLE_BOLD : STYLE_STRIKE;
+                close = findDouble(src, c, i + 2, end);
+            } else if (c == '*' && (i == start || src.charAt(i - 1) != '*')) {
+                markLength = 1;
+                style = STYLE_ITALIC;
+                close = findSingleStar(src, i + 1, end);
+            }
+
+            // 내용이 비어 있는 마크(****, **)는 글자 그대로
+            if (close <= i + markLength) {
+                i++;
+                continue;
+            }
+
+            out.append(src, plainStart, i);
+            int spanStart = out.length();
+            parseInline(src, i + markLength, close, out);
+            out.setSpan(newSpan(style), spanStart, out.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            i = close + markLength;
+            plainStart = i;
+        }
+        out.append(src, plainStart, end);
+    }
+
+    private static int findDouble(String src, char mark, int from, int end) {
+        for (int j = from; j + 1 < end; j++) {
+            if (src.charAt(j) == mark && src.charAt(j + 1) == mark) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 앞뒤가 *가 아닌 단독 * 위치 (**와 구분)
+     */
+    private static int findSingleStar(String src, int from, int end) {
+        for (int j = from; j < end; j++) {
+            if (src.charAt(j) == '*'
+                    && src.charAt(j - 1) != '*'
+                    && (j + 1 >= end || src.charAt(j + 1) != '*')) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private static Object newSpan(int style) {
+        switch (style) {
+            case STYLE_BOLD:
+                return new StyleSpan(Typeface.BOLD);
+            case STYLE_STRIKE:
+                return new StrikethroughSpan();
+            default:
+                return new StyleSpan(Typeface.ITALIC);
+        }
+    }
+}
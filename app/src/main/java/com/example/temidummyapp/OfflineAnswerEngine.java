@@ -0,0 +1,401 @@
+package com.example.temidummyapp;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.example.temidummyapp.db.EventSearchHelper;
+import com.example.temidummyapp.utils.CSVLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 네트워크가 없을 때 쓰는 규칙 기반 답변기
+ * 부스 DB(events 테이블)와 행사 정보/이벤트 안내 문구를 메모리에 올려두고
+ * 의도(일정, 장소, 입장료, 운영 시간, 이벤트, 부스 검색)별 템플릿으로 답변
+ * 프로세스당 하나만 만들어 앱 시작 시 백그라운드에서 DB를 읽어두고, 답변은 메모리에서만 처리 (수 ms 이내)
+ * 부스 DB와 안내 문구가 한국어뿐이라 답변도 한국어로만 함 (영어 질문이면 그 사실을 영어로 먼저 알림)
+ */
+public class OfflineAnswerEngine {
+    private static final String TAG = "OfflineAnswerEngine";
+
+    // 부스 검색 결과로 보여줄 최대 개수
+    private static final int MAX_BOOTHS = 3;
+
+    private static final Pattern MINUTES = Pattern.compile("(\\d+)\\s*분");
+    private static final Pattern EVENT_SECTION = Pattern.compile("=== \\d+\\) (.+) ===");
+    // "아이"는 단어로 쓰일 때만 ("우리 아이가", "아이들"은 포함, "아이디어"는 제외)
+    private static final Pattern CHILD_WORD = Pattern.compile("(^|\\s)아이(들)?(이|가|는|은|랑|와|과|도|를|을|한테|에게|하고)?($|\\s|[?.!,])");
+
+    /**
+     * 질문 의도
+     */
+    public enum Intent {
+        GREETING, DATE, LOCATION, FEE, HOURS, EVENT, BOOTH_SEARCH, UNKNOWN
+    }
+
+    /**
+     * 오프라인 답변
+     */
+    public static class Answer {
+        public final String text;
+        public final Intent intent;
+        public final long elapsedMs;
+
+        Answer(String text, Intent intent, long elapsedMs) {
+            this.text = text;
+            this.intent = intent;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
+    private static final String[] GREETING_WORDS = {"안녕", "반가", "하이"};
+    // 영어 인사는 단어 단위로만 ("this", "which", "machine"의 "hi"는 제외)
+    private static final Pattern GREETING_LATIN = Pattern.compile("\\b(hi|hello|hey)\\b");
+    private static final String ENGLISH_NOTICE =
+            "We're offline right now, so I can only answer briefly in Korean.\n\n";
+    private static final String[] DATE_WORDS = {"언제", "일정", "기간", "날짜", "며칠", "몇일", "요일", "개막", "폐막"};
+    private static final String[] LOCATION_WORDS = {"어디서", "어디에서", "장소", "위치", "벡스코", "bexco", "가는 길", "오시는"};
+    private static final String[] FEE_WORDS = {"입장료", "요금", "가격", "무료", "유료", "얼마"};
+    private static final String[] HOURS_WORDS = {"몇 시", "몇시", "운영 시간", "운영시간", "체험 시간", "체험시간", "마감", "끝나"};
+    // 이벤트 이름에 들어 있는 단어 → 그 이벤트를 가리키는 질문 단어
+    private static final String[][] EVENT_KEYWORDS = {
+            {"수험생", "수험", "수능"},
+            {"스탬프", "스탬프", "도장"}
+    };
+    private static final String[] EVENT_WORDS = {"이벤트", "경품", "스탬프", "도장", "수험생", "수험표", "선물"};
+
+    private static OfflineAnswerEngine instance;
+
+    private final Context context;
+    private final Map<String, String> eventInfo = new LinkedHashMap<>();
+    private final Map<String, String> eventSections = new LinkedHashMap<>();
+    private boolean preloading = false;
+    private List<HashMap<String, String>> booths;
+    private ProgramRetriever retriever;
+    // 부스 DB의 체험시간 (대부분의 부스 운영 시간, 그와 다른 운영 시간들)
+    private String defaultHours;
+    private List<String> otherHours;
+
+    public static synchronized OfflineAnswerEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new OfflineAnswerEngine(context, OpenAIService.EVENT_INFO, OpenAIService.EVENT_DETAILS);
+        }
+        return instance;
+    }
+
+    /**
+     * @param eventInfo   "키: 값" 줄로 된 행사 정보 (OpenAIService.EVENT_INFO)
+     * @param eventDetails "=== N) 이벤트명 ===" 섹션으로 나뉜 이벤트 안내 (OpenAIService.EVENT_DETAILS)
+     */
+    OfflineAnswerEngine(Context context, String eventInfo, String eventDetails) {
+        this.context = context.getApplicationContext();
+        parseEventInfo(eventInfo);
+        parseEventSections(eventDetails);
+    }
+
+    /**
+     * 부스 DB를 백그라운드에서 미리 읽어 색인 생성 (네트워크가 끊긴 첫 질문이 DB 읽기를 기다리지 않도록)
+     */
+    public void preload() {
+        synchronized (this) {
+            if (booths != null || preloading) {
+                return;
+            }
+            preloading = true;
+        }
+        Thread thread = new Thread(this::ensureBoothsLoaded, "offline-answers");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 질문에 답변 (미리 읽기가 끝나기 전이면 DB를 읽으므로 메인 스레드에서 호출하지 않음)
+     */
+    public Answer answer(String question) {
+        long start = SystemClock.elapsedRealtime();
+        ensureBoothsLoaded();
+
+        String q = question != null ? question.toLowerCase(Locale.ROOT) : "";
+        Intent intent = detectIntent(q);
+        String text;
+        switch (intent) {
+            case EVENT:
+                text = answerEvent(q);
+                break;
+            case DATE:
+                text = "2025 CO-SHOW 일정은 " + info("일정") + "입니다."
+                        + (defaultHours.isEmpty() ? "" : " 체험 부스는 보통 " + defaultHours + "에 운영해요.");
+                break;
+            case LOCATION:
+                text = "행사 장소는 " + info("장소") + "입니다.";
+                break;
+            case FEE:
+                text = "입장료는 " + info("입장료") + "입니다. " + info("대상") + " 참여할 수 있어요.";
+                break;
+            case HOURS:
+                text = answerHours();
+                break;
+            case BOOTH_SEARCH:
+                text = answerBooths(q);
+                break;
+            case GREETING:
+                text = "안녕하세요! 코쓰봇입니다. 지금은 인터넷 연결이 불안정해서 간단한 안내만 가능해요. "
+                        + "행사 일정, 장소, 이벤트, 체험 부스를 물어봐 주세요.";
+                break;
+            default:
+                text = "지금은 인터넷 연결이 불안정해서 자세한 답변이 어려워요. "
+                        + "행사 일정, 장소, 입장료, 이벤트, 체험 부스(예: \"초등학생 로봇 체험\")를 물어봐 주시면 안내해 드릴게요.";
+                break;
+        }
+
+        if (LanguageDetector.detect(question) == LanguageDetector.Language.EN) {
+            text = ENGLISH_NOTICE + text;
+        }
+
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.d(TAG, "오프라인 답변 (" + intent + ", " + elapsed + "ms)");
+        return new Answer(text, intent, elapsed);
+    }
+
+    private Intent detectIntent(String q) {
+        if (containsAny(q, EVENT_WORDS)) {
+            return Intent.EVENT;
+        }
+        // "로봇 체험 어디야"처럼 부스를 묻는 질문은 부스 검색이 우선
+        if (retriever.retrieve(q, 1).confident) {
+            return Intent.BOOTH_SEARCH;
+        }
+        if (containsAny(q, DATE_WORDS)) {
+            return Intent.DATE;
+        }
+        if (containsAny(q, LOCATION_WORDS)) {
+            return Intent.LOCATION;
+        }
+        if (containsAny(q, FEE_WORDS)) {
+            return Intent.FEE;
+        }
+        if (containsAny(q, HOURS_WORDS)) {
+            return Intent.HOURS;
+        }
+        if (q.contains("체험") || q.contains("부스") || q.contains("추천") || q.contains("프로그램")
+                || MINUTES.matcher(q).find() || targetsFor(q) != null) {
+            return Intent.BOOTH_SEARCH;
+        }
+        if (containsAny(q, GREETING_WORDS) || GREETING_LATIN.matcher(q).find()) {
+            return Intent.GREETING;
+        }
+        return Intent.UNKNOWN;
+    }
+
+    /**
+     * 특정 이벤트를 물으면 그 이벤트 안내, 이름이 없으면 ("이벤트 뭐 있어?") 진행 중인 이벤트 목록
+     */
+    private String answerEvent(String q) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> section : eventSections.entrySet()) {
+            if (namesEvent(q, section.getKey())) {
+                if (text.length() > 0) {
+                    text.append("\n\n");
+                }
+                text.append(section.getKey()).append(" 안내입니다.\n").append(section.getValue());
+            }
+        }
+        if (text.length() == 0) {
+            return "진행 중인 이벤트는 " + TextUtils.join(", ", eventSections.keySet()) + "입니다. "
+                    + "궁금한 이벤트를 말씀해 주시면 자세히 안내해 드릴게요.";
+        }
+        return text.toString();
+    }
+
+    private static boolean namesEvent(String q, String eventName) {
+        for (String[] keywords : EVENT_KEYWORDS) {
+            if (eventName.contains(keywords[0])) {
+                for (int i = 1; i < keywords.length; i++) {
+                    if (q.contains(keywords[i])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 부스 DB의 체험시간으로 운영 시간 안내 (대부분의 부스 시간 + 다른 시간대)
+     */
+    private String answerHours() {
+        StringBuilder text = new StringBuilder();
+        if (!defaultHours.isEmpty() && otherHours.isEmpty()) {
+            text.append("체험 부스는 ").append(defaultHours).append("에 운영합니다. ");
+        } else if (!defaultHours.isEmpty()) {
+            text.append("체험 부스는 대부분 ").append(defaultHours).append("에 운영하고, 일부 부스는 ")
+                    .append(TextUtils.join(" 또는 ", otherHours)).append("에 운영합니다. ");
+        }
+        return text.append("궁금한 부스 이름을 알려주시면 운영 시간을 알려드릴게요.").toString();
+    }
+
+    /**
+     * 부스 검색: 키워드(BM25) + 연령/소요시간 조건
+     */
+    private String answerBooths(String q) {
+        List<String> allowedTargets = targetsFor(q);
+        Integer maxMinutes = null;
+        Matcher m = MINUTES.matcher(q);
+        if (m.find()) {
+            maxMinutes = Integer.parseInt(m.group(1));
+        }
+
+        ProgramRetriever.Result result = retriever.retrieve(q, booths.size());
+        List<HashMap<String, String>> candidates = new ArrayList<>();
+        if (result.confident) {
+            for (int index : result.indices) {
+                candidates.add(booths.get(index));
+            }
+        } else {
+            candidates.addAll(booths);
+            // 키워드가 없으면 짧은 체험부터 추천
+            Collections.sort(candidates, (a, b) -> Integer.compare(minutesOf(a), minutesOf(b)));
+        }
+
+        List<HashMap<String, String>> picked = new ArrayList<>();
+        for (HashMap<String, String> booth : candidates) {
+            if (allowedTargets != null && !allowedTargets.contains(booth.get("참여대상"))) {
+                continue;
+            }
+            if (maxMinutes != null && minutesOf(booth) > maxMinutes) {
+                continue;
+            }
+            picked.add(booth);
+            if (picked.size() >= MAX_BOOTHS) {
+                break;
+            }
+        }
+
+        if (picked.isEmpty()) {
+            return "조건에 맞는 체험 부스를 찾지 못했어요. 관심 분야나 나이를 조금 다르게 알려주시겠어요?";
+        }
+        StringBuilder text = new StringBuilder("이런 체험은 어떠세요?\n");
+        for (HashMap<String, String> booth : picked) {
+            text.append("\n**").append(booth.get("대제목")).append("** (").append(booth.get("분야")).append(")\n")
+                    .append("- ").append(booth.get("한줄소개")).append('\n')
+                    .append("- 대상: ").append(booth.get("참여대상"))
+                    .append(" / 소요시간: ").append(booth.get("소요시간_원본")).append("분")
+                    .append(" / 운영: ").append(booth.get("체험시간")).append('\n');
+        }
+        return text.toString().trim();
+    }
+
+    /**
+     * 질문의 연령대에 맞는 참여대상 목록 (언급이 없거나 성인이면 null = 제한 없음)
+     */
+    private static List<String> targetsFor(String q) {
+        if (q.contains("초등") || q.contains("어린이") || CHILD_WORD.matcher(q).find()) {
+            return EventSearchHelper.allowedTargetsFor(q.contains("고학년") || q.contains("5학년") || q.contains("6학년")
+                    ? EventSearchHelper.VISITOR_ELEMENTARY_UPPER : EventSearchHelper.VISITOR_ELEMENTARY);
+        }
+        if (q.contains("중학")) {
+            return EventSearchHelper.allowedTargetsFor(EventSearchHelper.VISITOR_MIDDLE);
+        }
+        return null;
+    }
+
+    private static int minutesOf(HashMap<String, String> booth) {
+        try {
+            return Integer.parseInt(booth.get("소요시간"));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private String info(String key) {
+        String value = eventInfo.get(key);
+        return value != null ? value : "";
+    }
+
+    private static boolean containsAny(String text, String[] words) {
+        for (String word : words) {
+            if (text.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 부스 목록을 메모리로 읽고 검색 색인 생성 (DB가 비어 있으면 CSV에서 채움)
+     */
+    private synchronized void ensureBoothsLoaded() {
+        if (booths != null) {
+            return;
+        }
+        CSVLoader.loadIfEmpty(context);
+        List<HashMap<String, String>> rows = new EventSearchHelper(context).search(null, null, null, null);
+
+        // 부스마다 문서 하나 (같은 프로그램을 운영하는 부스도 모두 검색되도록 내용으로 합치지 않음)
+        List<String> documents = new ArrayList<>(rows.size());
+        for (HashMap<String, String> booth : rows) {
+            documents.add(booth.get("분야") + "\t" + booth.get("대제목") + "\t" + booth.get("한줄소개")
+                    + "\t" + booth.get("참여대상"));
+        }
+        retriever = new ProgramRetriever(documents);
+
+        defaultHours = ProgramKnowledge.mostCommon(rows, "체험시간");
+        LinkedHashSet<String> others = new LinkedHashSet<>();
+        for (HashMap<String, String> booth : rows) {
+            String hours = booth.get("체험시간");
+            if (!TextUtils.isEmpty(hours) && !hours.trim().equals(defaultHours)) {
+                others.add(hours.trim());
+            }
+        }
+        otherHours = new ArrayList<>(others);
+        booths = rows;
+        Log.d(TAG, "부스 " + rows.size() + "개 색인 완료");
+    }
+
+    private void parseEventInfo(String text) {
+        for (String line : text.split("\n")) {
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                eventInfo.put(line.substring(0, colon).trim(), line.substring(colon + 2).trim());
+            }
+        }
+    }
+
+    /**
+     * 이벤트 섹션별 요약 (이름, 대상, 혜택/설명, 기간, 위치 줄만)
+     */
+    private void parseEventSections(String text) {
+        String current = null;
+        StringBuilder summary = new StringBuilder();
+        for (String line : text.split("\n")) {
+            Matcher m = EVENT_SECTION.matcher(line);
+            if (m.matches()) {
+                if (current != null) {
+                    eventSections.put(current, summary.toString().trim());
+                }
+                current = m.group(1).trim();
+                summary.setLength(0);
+                continue;
+            }
+            if (current != null && !line.endsWith(":") && (line.startsWith("대상:") || line.startsWith("혜택:") || line.startsWith("설명:")
+                    || line.startsWith("조건:") || line.startsWith("운영 기간:") || line.startsWith("참여 위치:")
+                    || line.startsWith("참여 제한:"))) {
+                summary.append("- ").append(line).append('\n');
+            }
+        }
+        if (current != null) {
+            eventSections.put(current, summary.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.temidummyapp;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OpenAI 장애 차단기 (공유 클라이언트의 애플리케이션 인터셉터, 채팅/STT/실시간 연결 공용)
+ * 연속 실패(네트워크 오류, 5xx, 지나치게 느린 응답)가 쌓이면 OPEN으로 전환해 이후 요청을 즉시 실패시키고,
+ * 대기 시간이 지나면 HALF_OPEN에서 요청 하나만 시험으로 보내 성공하면 CLOSED로 복구
+ * 방문객마다 타임아웃을 기다리는 대신 바로 오프라인 답변/안내로 넘어가기 위함
+ */
+public final class OpenAICircuitBreaker implements Interceptor {
+    private static final String TAG = "OpenAICircuitBreaker";
+
+    public enum State {
+        CLOSED, // 정상
+        OPEN, // 차단 중 (요청 즉시 실패)
+        HALF_OPEN // 시험 요청 1건만 허용
+    }
+
+    private static final int FAILURE_THRESHOLD = 3;
+    // 채팅 요청이 응답 헤더까지 이보다 오래 걸리면 실패로 셈 (장애 직전의 지연 급증)
+    // Whisper 업로드/변환은 음성 길이에 따라 정상적으로도 오래 걸리므로 적용하지 않음
+    private static final long SLOW_CALL_MS = 10_000;
+    private static final String SLOW_CALL_PATH = "/v1/chat/completions";
+    // 차단 시간 (시험 요청이 실패할 때마다 2배, 최대 2분)
+    private static final long BASE_OPEN_MS = 15_000;
+    private static final long MAX_OPEN_MS = 120_000;
+
+    private static final OpenAICircuitBreaker INSTANCE = new OpenAICircuitBreaker();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtMs;
+    private long openMs = BASE_OPEN_MS;
+    private boolean probeInFlight = false;
+    private String lastFailure;
+    private long trips = 0;
+    private long rejected = 0;
+
+    /**
+     * 차단 중이라 요청을 보내지 않았음 (IOException이므로 기존 네트워크 오류 경로로 처리됨)
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public final long retryAfterMs;
+
+        CircuitOpenException(long retryAfterMs) {
+            super("OpenAI 서버 장애로 연결을 잠시 중단했습니다 (" + (retryAfterMs + 999) / 1000 + "초 후 재시도)");
+            this.retryAfterMs = retryAfterMs;
+        }
+    }
+
+    public static OpenAICircuitBreaker getInstance() {
+        return INSTANCE;
+    }
+
+    private OpenAICircuitBreaker() {
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        // 인증 없는 요청 (사전 연결)은 판단에 포함하지 않음
+        if (request.header("Authorization") == null) {
+            return chain.proceed(request);
+        }
+
+        boolean probe = beforeCall();
+        long start = SystemClock.elapsedRealtime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) {
+                // 사용자 취소, 헤지 경쟁에서 진 요청
+                onNeutral(probe);
+            } else {
+                onFailure(probe, e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+            throw e;
+        }
+
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        if (response.code() >= 500) {
+            onFailure(probe, "HTTP " + response.code());
+        } else if (elapsed > SLOW_CALL_MS && SLOW_CALL_PATH.equals(request.url().encodedPath())) {
+            onFailure(probe, "응답 지연 " + elapsed + "ms");
+        } else {
+            onSuccess(probe);
+        }
+        return response;
+    }
+
+    /**
+     * 지금 요청하면 바로 거절되는지 (채팅은 요청을 만들기 전에 오프라인 답변으로 전환)
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && SystemClock.elapsedRealtime() - openedAtMs < openMs;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized String getStats() {
+        StringBuilder stats = new StringBuilder(String.format(Locale.US,
+                "Circuit: %s, failures %d/%d, trips %d, rejected %d",
+                state, consecutiveFailures, FAILURE_THRESHOLD, trips, rejected));
+        if (state == State.OPEN) {
+            long remaining = openMs - (SystemClock.elapsedRealtime() - openedAtMs);
+            stats.append(String.format(Locale.US, ", probe in %ds", Math.max(0, remaining) / 1000));
+        }
+        if (lastFailure != null) {
+            stats.append(", last failure: ").append(lastFailure);
+        }
+        return stats.toString();
+    }
+
+    /**
+     * 요청 허용 여부 판단
+     *
+     * @return 이 요청이 HALF_OPEN 시험 요청이면 true
+     */
+    private synchronized boolean beforeCall() throws CircuitOpenException {
+        long now = SystemClock.elapsedRealtime();
+        if (state == State.OPEN) {
+            long remaining = openMs - (now - openedAtMs);
+            if (remaining > 0) {
+                rejected++;
+                throw new CircuitOpenException(remaining);
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+            Log.d(TAG, "차단 시간 경과, 시험 요청 허용 (HALF_OPEN)");
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                rejected++;
+                throw new CircuitOpenException(0);
+            }
+            probeInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void onSuccess(boolean probe) {
+        consecutiveFailures = 0;
+        if (probe) {
+            state = State.CLOSED;
+            probeInFlight = false;
+            openMs = BASE_OPEN_MS;
+            Log.d(TAG, "시험 요청 성공, 정상 상태로 복구 (CLOSED)");
+        }
+    }
+
+    private synchronized void onFailure(boolean probe, String reason) {
+        consecutiveFailures++;
+        lastFailure = reason;
+        if (probe) {
+            probeInFlight = false;
+            openMs = Math.min(openMs * 2, MAX_OPEN_MS);
+            open("시험 요청 실패 (" + reason + ")");
+        } else if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+            openMs = BASE_OPEN_MS;
+            open("연속 " + consecutiveFailures + "회 실패 (" + reason + ")");
+        } else {
+            Log.d(TAG, "요청 실패 " + consecutiveFailures + "/" + FAILURE_THRESHOLD + ": " + reason);
+        }
+    }
+
+    private synchronized void onNeutral(boolean probe) {
+        if (probe) {
+            // 결과를 모르므로 다음 요청이 다시 시험 요청이 됨
+            probeInFlight = false;
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAtMs = SystemClock.elapsedRealtime();
+        trips++;
+        Log.w(TAG, "OpenAI 요청 차단 " + openMs / 1000 + "초: " + reason);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.temidummyapp;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OpenAI API용 공유 OkHttpClient
+ * 모든 OpenAI 요청이 같은 커넥션 풀을 쓰도록 하고, 화면 진입/웨이크워드 시점에
+ * 미리 연결(DNS + TCP + TLS)을 맺어 첫 질문의 첫 토큰 지연을 줄임
+ */
+public final class OpenAIHttpClient {
+    private static final String TAG = "OpenAIHttpClient";
+
+    // 인증 없이 호출해도 되는 가벼운 엔드포인트 (401 응답이지만 연결은 풀에 남음)
+    private static final String PREWARM_URL = "https://api.openai.com/v1/models";
+
+    // 커넥션 풀 유휴 유지 시간(기본 5분)보다 충분히 짧게
+    private static final long PREWARM_INTERVAL_MS = 60_000;
+
+    // 스트리밍은 readTimeout이 청크 사이 최대 대기 시간
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_TIMEOUT_SECONDS = 20;
+    private static final long WRITE_TIMEOUT_SECONDS = 10;
+
+    private static final AtomicLong lastPrewarm = new AtomicLong();
+    private static volatile OkHttpClient shared;
+
+    private OpenAIHttpClient() {
+    }
+
+    /**
+     * 요청별 연결 정보 (Request tag로 붙이면 새 연결을 맺었는지 기록됨)
+     */
+    public static class ConnectionTrace {
+        private volatile boolean newConnection = false;
+        private volatile long connectStartMs;
+        private volatile long connectMs;
+        private volatile long callStartMs;
+        private volatile long requestBytes = -1;
+        private volatile long responseHeadersMs = -1;
+
+        /**
+         * 이 요청이 새 연결을 맺었는지 (false면 풀의 연결 재사용)
+         */
+        public boolean isNewConnection() {
+            return newConnection;
+        }
+
+        /**
+         * 새 연결에 걸린 시간 (TCP + TLS, 재사용이면 0)
+         */
+        public long getConnectMs() {
+            return connectMs;
+        }
+
+        /**
+         * 전송한 요청 본문 크기 (바이트, 전송 전이면 -1)
+         */
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+
+        /**
+         * 호출 시작부터 응답 헤더 수신까지 걸린 시간 (연결 + 전송 + 서버 대기, 수신 전이면 -1)
+         */
+        public long getResponseHeadersMs() {
+            return responseHeadersMs;
+        }
+    }
+
+    /**
+     * 공유 클라이언트 (다른 설정이 필요하면 newBuilder()로 파생해 풀과 디스패처 공유)
+     * 파생 클라이언트도 같은 속도 제한기와 장애 차단기를 거침 (제한기 대기 후 차단기 판단)
+     * 마지막의 SseTapeDeck은 평소에는 그대로 통과 (녹화/재생 모드에서만 동작)
+     */
+    public static OkHttpClient shared() {
+        OkHttpClient client = shared;
+        if (client == null) {
+            synchronized (OpenAIHttpClient.class) {
+                client = shared;
+                if (client == null) {
+                    client = new OkHttpClient.Builder()
+                            .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                            .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                            .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                            .eventListenerFactory(call -> new TraceListener())
+                            .addInterceptor(OpenAIRateLimiter.getInstance())
+                            .addInterceptor(OpenAICircuitBreaker.getInstance())
+                            .addInterceptor(SseTapeDeck.getInstance())
+                            .build();
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * API 호스트에 미리 연결 (최근에 연결했으면 생략)
+     *
+     * @param reason 로그용 호출 위치
+     */
+    public static void prewarm(String reason) {
+        long now = SystemClock.elapsedRealtime();
+        long last = lastPrewarm.get();
+        if (last != 0 && now - last < PREWARM_INTERVAL_MS) {
+            return;
+        }
+        if (!lastPrewarm.compareAndSet(last, now)) {
+            return;
+        }
+
+        ConnectionTrace trace = new ConnectionTrace();
+        Request request = new Request.Builder()
+                .url(PREWARM_URL)
+                .head()
+                .tag(ConnectionTrace.class, trace)
+                .build();
+
+        shared().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "사전 연결 실패 (" + reason + "): " + e.getMessage());
+                lastPrewarm.set(0);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                Log.d(TAG, "사전 연결 완료 (" + reason + "): "
+                        + (trace.isNewConnection() ? "새 연결 " + trace.getConnectMs() + "ms" : "기존 연결 재사용"));
+            }
+        });
+    }
+
+    /**
+     * 요청의 ConnectionTrace에 연결 시간, 요청 크기, 응답 헤더 수신 시점 기록
+     */
+    private static class TraceListener extends EventListener {
+        @Override
+        public void callStart(Call call) {
+            ConnectionTrace trace = call.request().tag(ConnectionTrace.class);
+            if (trace != null) {
+                trace.callStartMs = SystemClock.elapsedRealtime();
+            }
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            ConnectionTrace trace = call.request().tag(ConnectionTrace.class);
+            if (trace != null) {
+                trace.newConnection = true;
+                trace.connectStartMs = SystemClock.elapsedRealtime();
+            }
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            ConnectionTrace trace = call.request().tag(ConnectionTrace.class);
+            if (trace != null) {
+                trace.connectMs = SystemClock.elapsedRealtime() - trace.connectStartMs;
+            }
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            ConnectionTrace trace = call.request().tag(ConnectionTrace.class);
+            if (trace != null) {
+                trace.requestBytes = byteCount;
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            ConnectionTrace trace = call.request().tag(ConnectionTrace.class);
+            if (trace != null) {
+                trace.responseHeadersMs = SystemClock.elapsedRealtime() - trace.callStartMs;
+            }
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.temidummyapp;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+
+/**
+ * OpenAI 요청 속도 제한기 (공유 클라이언트의 애플리케이션 인터셉터)
+ * 여러 키오스크가 같은 API 키를 쓰므로 분당 요청 수/토큰 수 버킷을 두고, 한도가 차면 도착 순서대로 대기시킴
+ * 응답의 x-ratelimit-* 헤더로 실제 남은 한도를 반영하고, 429는 Retry-After(없으면 가장 빠른 리셋 시각, 그것도 없으면 지수 백오프)만큼 기다렸다 재시도
+ * 재시도하지 않는 429(요금 한도 초과, 대기가 너무 긴 경우)는 다른 요청(음성 인식 등)을 막지 않음
+ */
+public final class OpenAIRateLimiter implements Interceptor {
+    private static final String TAG = "OpenAIRateLimiter";
+
+    // gpt-4o-mini 기본 티어 한도 (응답 헤더를 받으면 실제 값으로 갱신)
+    private static final int DEFAULT_REQUESTS_PER_MINUTE = 500;
+    private static final int DEFAULT_TOKENS_PER_MINUTE = 200_000;
+
+    // 대기열에서 이보다 오래 기다려야 하면 바로 실패 (채팅은 오프라인 답변으로 대체됨)
+    private static final long MAX_QUEUE_WAIT_MS = 15_000;
+    // 대기 중 취소 확인 주기
+    private static final long POLL_MS = 250;
+
+    private static final int MAX_RETRIES = 2;
+    private static final long MAX_RETRY_WAIT_MS = 10_000;
+    private static final long BASE_BACKOFF_MS = 1_000;
+
+    // 토큰 버킷이 이 비율 아래로 내려가면 max_tokens를 줄임
+    private static final double TIGHT_RATIO = 0.25;
+    private static final double CRITICAL_RATIO = 0.1;
+    private static final int MIN_MAX_TOKENS = 150;
+
+    // 프롬프트 토큰 추정 (한국어는 UTF-8 3바이트가 대략 1토큰)
+    private static final int BYTES_PER_TOKEN = 3;
+    private static final long MAX_INSPECT_BYTES = 1_000_000;
+    private static final Pattern MAX_TOKENS = Pattern.compile("\"max_tokens\"\\s*:\\s*(\\d+)");
+    private static final Pattern DURATION_PART = Pattern.compile("([0-9.]+)(ms|h|m|s)");
+
+    private static final OpenAIRateLimiter INSTANCE = new OpenAIRateLimiter();
+
+    // 아래 상태는 모두 this로 보호
+    private final Bucket requests = new Bucket(DEFAULT_REQUESTS_PER_MINUTE);
+    private final Bucket tokens = new Bucket(DEFAULT_TOKENS_PER_MINUTE);
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private long blockedUntilMs = 0;
+    private int consecutiveLimited = 0;
+    private long throttled = 0;
+    private long limited = 0;
+    private long degraded = 0;
+
+    /**
+     * 분당 한도를 균등하게 채우는 버킷
+     */
+    private static final class Bucket {
+        double capacity;
+        double level;
+        long updatedMs;
+
+        Bucket(double capacity) {
+            this.capacity = capacity;
+            this.level = capacity;
+            this.updatedMs = SystemClock.elapsedRealtime();
+        }
+
+        void refill(long now) {
+            level = Math.min(capacity, level + (now - updatedMs) * capacity / 60_000.0);
+            updatedMs = now;
+        }
+
+        /**
+         * amount만큼 쓸 수 있을 때까지 남은 시간 (한도보다 큰 요청은 버킷이 가득 차면 허용)
+         */
+        long waitMs(double amount) {
+            double needed = Math.min(amount, capacity);
+            if (level >= needed) {
+                return 0;
+            }
+            return (long) Math.ceil((needed - level) * 60_000.0 / capacity);
+        }
+    }
+
+    /**
+     * 한도 대기열에서 너무 오래 기다려야 해서 보내지 않음 (네트워크 오류가 아니라 한도 초과로 처리해야 함)
+     */
+    public static class RateLimitedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 한도 대기가 끝나 요청이 실제로 나갈 때 호출됨 (요청 태그로 등록, 재시도 대기는 제외)
+     */
+    public interface GrantListener {
+        void onGranted(long waitedMs);
+    }
+
+    public static OpenAIRateLimiter getInstance() {
+        return INSTANCE;
+    }
+
+    private OpenAIRateLimiter() {
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        // 인증 없는 요청 (사전 연결)은 한도에 포함되지 않음
+        if (request.header("Authorization") == null) {
+            return chain.proceed(request);
+        }
+
+        int cost = estimateTokens(request);
+        for (int attempt = 0; ; attempt++) {
+            long waited = acquire(cost, chain.call());
+            if (waited > 0) {
+                ChatTimings.record(ChatTimings.Metric.RATE_LIMIT_WAIT, waited);
+                Log.d(TAG, "한도 대기 " + waited + "ms (예상 " + cost + "토큰)");
+            }
+            GrantListener listener = request.tag(GrantListener.class);
+            if (attempt == 0 && listener != null) {
+                listener.onGranted(waited);
+            }
+
+            Response response = chain.proceed(request);
+            updateFromHeaders(response);
+            if (response.code() != 429) {
+                synchronized (this) {
+                    consecutiveLimited = 0;
+                }
+                return response;
+            }
+
+            long delay = onRateLimited(response);
+            // 요금 한도 초과는 기다려도 풀리지 않음
+            boolean quota = response.peekBody(2048).string().contains("insufficient_quota");
+            if (quota || attempt >= MAX_RETRIES || delay > MAX_RETRY_WAIT_MS) {
+                Log.w(TAG, "429 응답, 재시도 안 함 (" + (quota ? "요금 한도 초과" : delay + "ms 대기 필요") + ")");
+                return response;
+            }
+            // 재시도할 때만 재시도 시점까지 모든 요청을 막음
+            synchronized (this) {
+                blockedUntilMs = Math.max(blockedUntilMs, SystemClock.elapsedRealtime() + delay);
+            }
+            Log.w(TAG, "429 응답, " + delay + "ms 후 재시도 (" + (attempt + 1) + "/" + MAX_RETRIES + ")");
+            response.close();
+        }
+    }
+
+    /**
+     * 남은 토큰 한도에 맞춘 max_tokens (한도가 넉넉하면 desired 그대로, 빠듯하면 짧게)
+     */
+    public synchronized int maxTokensFor(int desired) {
+        long now = SystemClock.elapsedRealtime();
+        tokens.refill(now);
+        double ratio = tokens.level / tokens.capacity;
+        int maxTokens;
+        if (blockedUntilMs > now || ratio < CRITICAL_RATIO) {
+            maxTokens = MIN_MAX_TOKENS;
+        } else if (ratio < TIGHT_RATIO) {
+            maxTokens = Math.max(MIN_MAX_TOKENS, desired / 2);
+        } else {
+            return desired;
+        }
+        maxTokens = Math.min(desired, maxTokens);
+        if (maxTokens < desired) {
+            degraded++;
+            Log.d(TAG, String.format(Locale.US, "토큰 한도 부족 (%.0f%%), max_tokens %d → %d",
+                    ratio * 100, desired, maxTokens));
+        }
+        return maxTokens;
+    }
+
+    public synchronized String getStats() {
+        long now = SystemClock.elapsedRealtime();
+        requests.refill(now);
+        tokens.refill(now);
+        return String.format(Locale.US,
+                "Rate limit: requests %.0f/%.0f, tokens %.0f/%.0f per min; queued %d, throttled %d, 429 %d, degraded %d%s",
+                requests.level, requests.capacity, tokens.level, tokens.capacity, queue.size(),
+                throttled, limited, degraded,
+                blockedUntilMs > now ? ", blocked " + (blockedUntilMs - now) + "ms" : "");
+    }
+
+    /**
+     * 도착 순서대로 버킷에서 요청 1건과 cost 토큰을 차감 (맨 앞 요청만 차감 가능)
+     *
+     * @return 대기한 시간 (ms)
+     */
+    private long acquire(int cost, Call call) throws IOException {
+        Object ticket = new Object();
+        long start = SystemClock.elapsedRealtime();
+        synchronized (this) {
+            queue.addLast(ticket);
+            try {
+                while (true) {
+                    if (call.isCanceled()) {
+                        throw new IOException("Canceled");
+                    }
+                    long now = SystemClock.elapsedRealtime();
+                    boolean head = queue.peekFirst() == ticket;
+                    long wait = POLL_MS;
+                    if (head) {
+                        requests.refill(now);
+                        tokens.refill(now);
+                        wait = Math.max(blockedUntilMs - now, Math.max(requests.waitMs(1), tokens.waitMs(cost)));
+                        if (wait <= 0) {
+                            requests.level -= 1;
+                            tokens.level -= cost;
+                            long waited = now - start;
+                            if (waited > 0) {
+                                throttled++;
+                            }
+                            return waited;
+                        }
+                    }
+                    if (now - start + (head ? wait : 0) > MAX_QUEUE_WAIT_MS) {
+                        throttled++;
+                        throw new RateLimitedException("요청 한도 대기 시간 초과 (" + (now - start + wait) + "ms)");
+                    }
+                    wait(Math.min(wait, POLL_MS));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("한도 대기 중 중단됨");
+            } finally {
+                queue.remove(ticket);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 서버가 알려준 한도/잔여량 반영 (다른 키오스크 사용량이 포함된 실제 값)
+     */
+    private void updateFromHeaders(Response response) {
+        long limitRequests = parseLong(response.header("x-ratelimit-limit-requests"));
+        long limitTokens = parseLong(response.header("x-ratelimit-limit-tokens"));
+        long remainingRequests = parseLong(response.header("x-ratelimit-remaining-requests"));
+        long remainingTokens = parseLong(response.header("x-ratelimit-remaining-tokens"));
+        if (limitRequests < 0 && limitTokens < 0 && remainingRequests < 0 && remainingTokens < 0) {
+            return;
+        }
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            requests.refill(now);
+            tokens.refill(now);
+            if (limitRequests > 0) {
+                requests.capacity = limitRequests;
+            }
+            if (limitTokens > 0) {
+                tokens.capacity = limitTokens;
+            }
+            if (remainingRequests >= 0) {
+                requests.level = Math.min(requests.level, remainingRequests);
+            }
+            if (remainingTokens >= 0) {
+                tokens.level = Math.min(tokens.level, remainingTokens);
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * 429 응답 처리: 다음 요청을 보낼 수 있을 때까지의 시간 계산
+     * x-ratelimit-reset-*는 버킷이 가득 찰 때까지의 시간이라 몇 분일 수 있으므로 둘 중 짧은 쪽을 사용
+     *
+     * @return 재시도까지 기다릴 시간 (ms)
+     */
+    private long onRateLimited(Response response) {
+        long delay = parseLong(response.header("retry-after-ms"));
+        if (delay < 0) {
+            long seconds = parseLong(response.header("Retry-After"));
+            delay = seconds >= 0 ? seconds * 1000 : -1;
+        }
+        if (delay < 0) {
+            long resetRequests = parseDuration(response.header("x-ratelimit-reset-requests"));
+            long resetTokens = parseDuration(response.header("x-ratelimit-reset-tokens"));
+            delay = resetRequests > 0 && resetTokens > 0 ? Math.min(resetRequests, resetTokens)
+                    : Math.max(resetRequests, resetTokens);
+        }
+        synchronized (this) {
+            limited++;
+            if (delay <= 0) {
+                // 헤더가 없으면 지수 백오프 (+-20% 지터로 여러 키오스크가 동시에 재시도하지 않게)
+                long backoff = BASE_BACKOFF_MS << Math.min(consecutiveLimited, 4);
+                delay = (long) (backoff * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+            }
+            consecutiveLimited++;
+        }
+        return delay;
+    }
+
+    /**
+     * 요청에 필요한 토큰 추정 (JSON 본문 크기 + max_tokens, 음성 업로드/WebSocket은 0)
+     */
+    private static int estimateTokens(Request request) {
+        RequestBody body = request.body();
+        if (body == null) {
+            return 0;
+        }
+        MediaType type = body.contentType();
+        long length;
+        try {
+            length = body.contentLength();
+        } catch (IOException e) {
+            return 0;
+        }
+        if (type == null || !"json".equals(type.subtype()) || length <= 0 || length > MAX_INSPECT_BYTES) {
+            return 0;
+        }
+        try {
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            String json = buffer.readUtf8();
+            Matcher matcher = MAX_TOKENS.matcher(json);
+            int maxTokens = matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+            return (int) (length / BYTES_PER_TOKEN) + maxTokens;
+        } catch (IOException | NumberFormatException e) {
+            return (int) (length / BYTES_PER_TOKEN);
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return (long) Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * "1s", "6m0s", "20ms", "1.5s" 형식의 기간 (ms, 없으면 -1)
+     */
+    static long parseDuration(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double total = 0;
+        boolean found = false;
+        while (matcher.find()) {
+            double amount;
+            try {
+                amount = Double.parseDouble(matcher.group(1));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            switch (matcher.group(2)) {
+                case "h":
+                    total += amount * 3_600_000;
+                    break;
+                case "m":
+                    total += amount * 60_000;
+                    break;
+                case "s":
+                    total += amount * 1_000;
+                    break;
+                default:
+                    total += amount;
+                    break;
+            }
+            found = true;
+        }
+        return found ? (long) Math.ceil(total) : -1;
+    }
+}
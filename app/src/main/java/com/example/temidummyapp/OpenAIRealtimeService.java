@@ -72,7 +72,8 @@ public class OpenAIRealtimeService {
 
     public OpenAIRealtimeService(String apiKey) {
         this.apiKey = apiKey;
-        this.client = new OkHttpClient.Builder()
+        // 연결 요청도 공유 클라이언트의 속도 제한을 거치도록 파생
+        this.client = OpenAIHttpClient.shared().newBuilder()
                 .readTimeout(0, TimeUnit.MILLISECONDS)
                 .build();
         this.gson = new Gson();
@@ -138,7 +139,7 @@ public class OpenAIRealtimeService {
      * 세션 설정 전송 (RAG 시스템 프롬프트 포함)
      */
     private void sendSessionUpdate() {
-        // OpenAIService의 AUDIO_SYSTEM_PROMPT 사용 (음성 대화용 간결한 버전)
+        // OpenAIService의 음성 대화용 프롬프트 사용 (간결한 버전 + DB에서 생성한 프로그램 목록)
         String systemPrompt = getAudioSystemPrompt();
 
         JsonObject sessionUpdate = new JsonObject();
@@ -192,7 +193,7 @@ public class OpenAIRealtimeService {
     }
 
     /**
-     * OpenAIService의 AUDIO_SYSTEM_PROMPT 가져오기 (음성 대화용)
+     * OpenAIService의 음성 대화용 시스템 프롬프트 가져오기
      */
     private String getAudioSystemPrompt() {
         // OpenAIService 인스턴스를 통해 음성 대화용 프롬프트 가져오기
@@ -1,7 +1,12 @@
 package com.example.temidummyapp;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.google.gson.Gson;
@@ -9,7 +14,22 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -28,104 +48,54 @@ public class OpenAIService {
     private static final String API_URL = "https://api.openai.com/v1/chat/completions";
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
+    // 캐시된 답변을 onStream으로 나눠 보낼 때의 조각 크기
+    private static final int CACHED_REPLAY_CHUNK_CHARS = 16;
+
+    // 스트리밍 요청용 공유 실행기 (동시 스트림 2개 + 헤지 요청 1개, 대기열 4개로 제한)
+    private static final int STREAM_THREADS = 3;
+    private static final int STREAM_QUEUE_CAPACITY = 4;
+    private static final ThreadPoolExecutor STREAM_EXECUTOR = createStreamExecutor();
+
+    // 첫 토큰 지연 SLO 감시용 타이머
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "openai-hedge-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final String CHAT_MODEL = "gpt-4o-mini";
+
+    // 첫 토큰이 이 시간 안에 오지 않으면 헤지 요청 시작
+    private static final long DEFAULT_FIRST_TOKEN_SLO_MS = 5000;
+
     private final OkHttpClient client;
     private final Gson gson;
     private final Handler mainHandler;
+    private final ConversationContext conversationContext;
+    private final FaqAnswerCache answerCache; // Context 없이 생성된 경우 null
+    private final OfflineAnswerEngine offlineEngine; // Context 없이 생성된 경우 null
+    private final ConnectivityManager connectivityManager;
+    private final BoothTools boothTools; // Context 없이 생성된 경우 null (도구 없이 전체 목록 사용)
     private String apiKey;
+    private volatile long firstTokenSloMs = DEFAULT_FIRST_TOKEN_SLO_MS;
+    private volatile String hedgeModel; // null이면 같은 모델로 헤지
 
     // ========== RAG 공통 데이터 (CHATBOT & AUDIO 공유) ==========
 
     /**
      * 행사 기본 정보
      */
-    private static final String EVENT_INFO = "=== 행사 정보 ===\n" +
+    static final String EVENT_INFO = "=== 행사 정보 ===\n" +
             "행사명: 2025 CO-SHOW (코쇼)\n" +
             "일정: 2025년 11월 26일(수) ~ 11월 29일(토), 4일간\n" +
             "장소: 부산 BEXCO 제1전시장 2홀, 3A홀\n" +
             "대상: 초·중·고등학생, 대학생, 전 국민 누구나\n" +
             "입장료: 무료\n\n";
 
-    /**
-     * 프로그램 목록 (55개 프로그램)
-     */
-    private static final String PROGRAM_LIST = "=== 프로그램 데이터 형식 ===\n" +
-            "booth_no\tstage\ttags\ttitle\tintroduction\ttime_max\tmethod\n\n" +
-            "=== 프로그램 목록 ===\n" +
-            "B04\t중학생 이상\t인공지능\tAICOSS 캠퍼스 탐구생활\tAI 전공-특화 교과목(20-20)을 메타버스 캠퍼스에서 페험하고 숨겨진 미션을 해결하고 보상받자!\t10분\t현장접수\n" +
-            "B04\t초등학생 고학년 이상\t인공지능\t3분 아티스트 - 나만의 AI 아트 팝업 갤러리\t카메라에 찍힌 내 얼굴이 단 3분만에 영화 스타일의 미디어 아트로 변신!\t10분\t현장접수\n"
-            +
-            "B04\t초등학생 고학년 이상\t인공지능\t우리동네 AI 안전교실 체험\t아이들의 행동을 AI가 즉시 분석하고 안전리포트를 만들어주는 실시간 체험\t10분\t현장접수\n" +
-            "B07\t고등학생 이상\t데이터보안 활용융합\tDrone Under Attack: 하늘 위의 드론 위협\t하늘 위에서 벌어지는 사이버 위협의 실체를 직접 체험해보세요!\t15분\t현장접수 / 사전접수\n"
-            +
-            "B07\t중학생 이상\t데이터보안 활용융합\t우리의 친절한 로봇의 반란\t해커의 손에 넘어가 멈추고 조작되는 순간, 로봇 해킹의 실체를 체험!\t15분\t현장접수 / 사전접수\n" +
-            "B07\t중학생 이상\t데이터보안 활용융합\t탈출하라, 사이버 보안 위기속 탈출기\t주변 단서를 조합해 사이버 위기 속 위협을 탈출하는 방탈출 게임!\t30분\t현장접수 / 사전접수\n" +
-            "B07\t중학생 이상\t데이터보안 활용융합\t해킹이 부른 의료 사고\t실제 의료기기 해킹 시연으로 환자 생명에 미치는 치명적 위험을 확인!\t10분\t현장접수 / 사전접수\n" +
-            "B07\t초등학생 이상\t데이터보안 활용융합\tAI가 만든 가짜를 잡아라\t숨은 단서를 찾아 AI가 만든 가짜와 사람의 진짜를 구분해보세요.\t10분\t현장접수 / 사전접수\n" +
-            "B07\t초등학생 이상\t데이터보안 활용융합\t스마트홈 캠 해킹, 누군가 지켜보고 있다.\t스마트홈 해킹 시연을 통해 사생활 침해의 실체를 확인하세요.\t10분\t현장접수 / 사전접수\n" +
-            "A04\t고등학생 이상\t차세대 디스플레이\t차세대디스플레이 공정 XR 체험\t디스플레이 6.5G 공정 프로세스(증착기 내부, 실제 크기 등)을 체험\t10분\t현장접수\n" +
-            "A04\t초등학생 이상\t차세대 디스플레이\tT-OLED 액자\t투명 OLED를 사용하여 원하는 이미지를 액자로 찰칵!\t5분\t현장접수\n" +
-            "A04\t초등학생 이상\t차세대 디스플레이\t키네틱LED Interactive\t실시간 동작 감지로 키네틱LED를 체험\t10분\t현장접수\n" +
-            "B02\t누구나\t반도체 소부장\t반도체 장비를 분해해보자\t반도체를 만드는 장비 내부를 보고, 뜯고, 조립해보는 VR 체험\t15~30분\t현장접수 / 사전접수\n" +
-            "B09\t누구나\t에코업\t세종기후환경 네트워크 체험1 · 대기전력과 에너지소비효율등급\t가전제품 대기전력과 에너지소비효율등급 알아보기\t10분\t현장접수 / 사전접수\n" +
-            "B09\t초등학생 고학년 이상\t에코업\t에코업 6대 과제 탈출놀이\t에코업 6대 과제를 통해 탈출하는 프로그램\t15분\t현장접수 / 사전접수\n" +
-            "B09\t초등학생 고학년 이상\t에코업\t세종기후환경네트워크 체험2 LED로 그리는 탄소 중립\t탄소중립 조명 만들기(아크릴 LED등 만들기)\t20분\t현장접수 / 사전접수\n" +
-            "B01\t누구나\t사물 인터넷\t센서가 듣고, AI가 생각한다\t센서가 내 목소리와 심장 소리를 읽고, AI가 판단하면 로봇이 곧바로 움직인다. 센서와 AI가 만드는 연결된 세상의 실험실.\t5분\t현장접수\n"
-            +
-            "B01\t중학생 이상\t사물 인터넷\t스마트음식 디지털 트윈 체험\t모바일 로봇과 수질센서를 활용한 자율 환경 관리 체험\t30분\t현장접수\n" +
-            "B01\t초등학생 고학년 이상\t사물 인터넷\tAI IoT 스마트 조명\t경량 AI와 IoT로 만드는 나만의 스마트 조명\t10분\t현장접수\n" +
-            "A06\t누구나\t이차전지\t이차전지 제조공정 VR체험\tHMD를 착용하고, 이차전지 제조과정에 대한 VR영상을 통한 체험\t30분\t사전접수\n" +
-            "A06\t중학생 이상\t이차전지\t보조배터리 제작 체험 (보조배터리 만들어 봤어? 안 만들어 봤으면 말을 하지마!)\t보조배터리 툴킷(Toolkit)을 활용한 제작 체험\t1시간\t사전접수\n"
-            +
-            "B06\t누구나\t에너지 신산업\t플러스에너지 빌딩\t건물 자체에서 소비하는 에너지보다 더 많은 에너지를 생산하여 순에너지 이익을 창출하는 차세대 친환경 건물을 직접 체험\t10분\t현장접수\n"
-            +
-            "B06\t중학생 이상\t에너지 신산업\t수소자동차 롱롱\t수소자동차의 원리를 이해하고 직접 만들어보는 체험형 프로그램\t40분\t사전접수\n" +
-            "B06\t중학생 이상\t에너지 신산업\t수소연료전지 자동차 만들기\t수소연료전자의 원리를 이해하고 친환경 자동차를 직접 만들어보는 체험형 교육 프로그램\t40분\t사전접수\n" +
-            "B06\t중학생 이상\t에너지 신산업\t작은발전기\t친환경에너지를 이해하고 내손으로 만들어보는 발전기\t40분\t사전접수\n" +
-            "B06\t중학생 이상\t에너지 신산업\t태양광 강아지 로봇 만들기\t태양광의 원리를 배우고 직접 전지판 실험 및 강아지로봇 제작을 통해 친환경 에너지를 체험\t60분\t현장접수 / 사전접수\n"
-            +
-            "B05\t초등학생 이상\t지능형 로봇\tAI 드론 및 로봇·오목 로봇 체험\t로봇과의 오목두기·로봇이 그려주는 캐리커쳐 체험을 선택하여 진행\t10분\t현장접수\n" +
-            "B05\t초등학생 이상\t지능형 로봇\tROBO SHOW\t4족 보행로봇·모바일로봇 등을 활용한 로봇쇼\t상시\t현장접수\n" +
-            "B05\t초등학생 이상\t지능형 로봇\t경주로봇 만들기\t경주로봇을 만들어 트랙에서 다른 사람과 경기를 해본다\t60분\t현장접수\n" +
-            "B05\t초등학생 고학년 이상\t지능형 로봇\t청소로봇 만들기\t로봇청소기의 원리를 배울 수 있는 자율주행청소로봇 만들기!\t60분\t사전접수\n" +
-            "B05\t초등학생 고학년 이상\t지능형 로봇\t자이로 외발주행로봇 만들기\t신기방기한 자이로 레일카의 원리에 빠져보아요\t60분\t사전접수\n" +
-            "B05\t초등학생 고학년 이상\t지능형 로봇\t유선 스파이더로봇 만들기\t유선으로 조종이 가능한 다족로봇을 만들어 보아요\t60분\t사전접수\n" +
-            "B05\t초등학생 고학년 이상\t지능형 로봇\t로봇아 멍멍해봐\t4족보행로봇의 원리를 학습하고 트랙 운행을 통해 로봇의 움직임을 직접 체험하는 프로그램\t60분\t현장접수\n" +
-            "B05\t중학생 이상\t지능형 로봇\t휴머노이드 이론교육 및 미션수행\t4족보행로봇의 원리를 학습하고 트랙 운행을 통해 로봇의 움직임을 직접 체험하는 프로그램\t90분\t사전접수\n" +
-            "A07\t초등학생 고학년 이상\t실감 미디어\t꿈의 학교 속으로! 메타버스 캠퍼스 & 콘텐츠 여행\t실감 미디어 메타버스 플랫폼을 활용한 대학 캠퍼스 투어 및 우수작품 쇼케이스\t10분\t현장접수\n"
-            +
-            "A07\t초등학생 고학년 이상\t실감 미디어\t디지털숲 영상 오디세이\t가상현실로 구현된 숲 숲속 기상 변화 등을 배경으로 시각과 청각을 활용해 정신과 신체의 이완을 돕는 명상 프로그램\t30분\t사전접수\n"
-            +
-            "A07\t초등학생 고학년 이상\t실감 미디어\t진짜처럼 짜릿! 햅틱 손맛 체험존(VR 기반의 햅틱 디바이스 체험)\t햅틱 디바이스(슈트와 장갑)를 착용한 후 복싱과 롤러코스터 체험\t10분\t현장접수\n"
-            +
-            "A07\t초등학생 고학년 이상\t실감 미디어\t톡톡 튀는 콘텐츠! 실감 팡팡 체험존\t실감미디어 학생들의 독창성 있는 우수 작품들을 직접 체험\t10분\t현장접수\n" +
-            "B08\t초등학생 고학년 이상\t미래 자동차\tAWS DeepRacer 자율주행 체험\t자율주행 AI VS 인간 운전 대결 승자는?!\t10분\t현장접수 / 사전접수\n" +
-            "B11\t초등학생 고학년 이상\t항공드론\tUAM 조종 시뮬레이터 체험\t블록코딩을 활용한 드론 실습 및 체험교육\t30분 이내\t현장접수 / 사전접수\n" +
-            "B11\t초등학생 고학년 이상\t항공드론\t드론 장애물 경주 체험\t드론을 수동으로 조종하여 다양한 미션을 수행하는 체험 프로그램\t30분 이내\t현장접수\n" +
-            "B11\t초등학생 고학년 이상\t항공드론\t블록코딩을 활용한 드론제어\t블록코딩을 활용한 드론 실습 및 체험교육\t90분 이내\t현장접수 / 사전접수\n" +
-            "A02\t초등학생 고학년 이상\t차세대 반도체\t어서와, 반도체 회로제작은 처음이지?\t내 손으로 만들어보는 반도체 PCB자 미니 게임기\t30분\t현장접수\n" +
-            "B10\t초등학생 고학년 이상\t첨단소재 나노융합\t첨단소재워터랩: 모래의 비밀\t모래가 씨앗의 수분 공급과 싹틔움에 미치는 원리를 통해 첨단소재의 개념 체험\t40분\t사전접수\n" +
-            "B10\t초등학생 이상\t첨단소재 나노융합\t3D펜으로 만드는 첨단소재 창의공작소\t3D펜과 첨단소재로 상상을 입체로 구현하는 창의 체험 프로그램\t30분\t현장접수\n" +
-            "B10\t초등학생 이상\t첨단소재 나노융합\t손끝에서 펼쳐지는 스트레처블 첨단연구소재\t쭈욱 늘어나는 스트레처블(유연 고분자) 소재 과학 체험\t40분\t사전접수\n" +
-            "A01\t초등학생 이상\t그린 바이오\tSpace Green 우주 농부 인증 미션을 위한 탑승을 시작합니다!\t애그테크(Ag-Tech) 접목 우주 농사 체험! 상추 생장 환경을 제어해 우주 농부 인증 받기\t25분\t현장접수\n"
-            +
-            "A05\t초등학생 이상\t바이오 헬스\t기술로 되찾는 움직임, 로봇이 전하는 회복의 미래\t첨단 로봇 재활 기기가 만들어가는 새로운 걸음과 삶의 가능성\t10분\t현장접수 / 사전접수\n" +
-            "A05\t초등학생 이상\t바이오 헬스\t생명의 코드, 우리 몸과 DNA\t코끼리 치약부터 DNA추출까지 실험으로 배우는 유전자 과학\t60분\t사전접수\n" +
-            "A05\t초등학생 이상\t바이오 헬스\t이동의 경계를 넘어, 게임으로 확장된 세상\t휠체어와 게임이 만드는 새로운 경험과 가능성\t4분\t현장접수 / 사전접수\n" +
-            "A05\t초등학생 이상\t바이오 헬스\t피부 위의 예술, 인체 속의 과학\t바디페인팅으로 경험하는 인체과학과 예술\t15분\t현장접수 / 사전접수\n" +
-            "B06\t초등학생 이상\t에너지 신산업\t수소밸류체인 VR 체험 프로그램\tVR을 통해 수소 생산부터 활용까지 수소벨류체인의 전 과정을 생생하게 체험\t10분\t사전접수\n" +
-            "B06\t초등학생 이상\t에너지 신산업\t업사이클링 카드지갑 만들기\t친환경 소재로 만들어보는 나만의 카드지갑\t30분\t사전접수\n" +
-            "B03\t초등학생 이상\t차세대 통신\t인공위성 통신 체험관\t인공위성 발사부터 통신까지! 위성 통신 체험하기!\t15분\t현장접수 / 사전접수\n" +
-            "A03\t초등학생 이상\t빅데이터\tScent Memory\t나의 취향을 입력하면 데이터가 향수 레시피를 추천해준다구?!\t5분\t현장접수\n" +
-            "A03\t초등학생 이상\t빅데이터\t기택이의 대모험\t오류 속에 숨은 진실 기택이와 데이터 디버깅 체험\t5~10분\t현장접수\n" +
-            "A03\t초등학생 이상\t빅데이터\t나는 누구일까?\t빅데이터가 랜덤키워드 5개를 줄게 정답은 누가 맞출래?\t5~10분\t현장접수\n" +
-            "A03\t초등학생 이상\t빅데이터\t나의 왕자님, 공주님을 찾아라!\t이상형과 관련된 단어만 알려줘! AI가 이상형을 그려줄게!\t5~10분\t현장접수\n" +
-            "A03\t초등학생 이상\t빅데이터\t너 내 동료가 되라!\t데이터분석? 시각화? 빅데이터 전공이 궁금하면 따라와! 전공체험 해보자\t5분\t현장접수\n" +
-            "A03\t초등학생 이상\t빅데이터\t빅데이터 어워즈\t챗봇과 함께하는 빅데이터 컨소시엄 학생들이 만든 우수 성과 체험\t5분\t현장접수\n\n\n";
-
     /**
      * 이벤트 상세 정보
      */
-    private static final String EVENT_DETAILS = "=== CO-SHOW 이벤트 안내 ===\n\n" +
+    static final String EVENT_DETAILS = "=== CO-SHOW 이벤트 안내 ===\n\n" +
             "=== 1) 수험생 특별 이벤트 ===\n" +
             "이벤트명: 2025 CO-SHOW 수험생 이벤트\n" +
             "대상: 수험표 지참 수험생\n" +
@@ -189,30 +159,110 @@ public class OpenAIService {
     // ========== 챗봇용 시스템 프롬프트 (텍스트 대화) ==========
 
     /**
-     * 텍스트 챗봇용 시스템 프롬프트 (상세한 버전)
+     * 텍스트 챗봇용 프롬프트 앞부분 (소개 + 행사 정보 + 안내 규칙)
      */
-    private static final String CHATBOT_SYSTEM_PROMPT = "당신은 2025 CO-SHOW 행사 안내 도우미, 이름은 코쓰봇(COSS-bot)입니다. 방문객에게 친절하고 정확하게 정보를 제공해야 합니다.\n\n"
+    private static final String CHATBOT_PROMPT_HEAD = "당신은 2025 CO-SHOW 행사 안내 도우미, 이름은 코쓰봇(COSS-bot)입니다. 방문객에게 친절하고 정확하게 정보를 제공해야 합니다.\n\n"
             +
             EVENT_INFO +
             "=== 안내 규칙 ===\n" +
             "- 아래 표와 제공된 행사 정보만 사용해 안내합니다.\n" +
             "- 사용자가 처음 질문하면 바로 프로그램을 나열하지 않고,\n" +
             "  어떤 활동을 원하는지·누구와 왔는지·흥미 있는 분야 등을 1~2가지 자연스럽게 확인합니다.\n" +
-            "- 대화를 2~3턴 진행하며 연령(stage), 관심 분야(tags), 체험 시간(time_max), 희망 분위기 등을 파악합니다.\n" +
+            "- 대화를 2~3턴 진행하며 연령(대상), 관심 분야(분야), 체험 시간(소요), 희망 분위기 등을 파악합니다.\n" +
             "- 조건에 맞는 프로그램을 최대 3개 추천하고 짧은 이유를 함께 안내합니다.\n" +
             "- 추측하거나 만들어내지 않고, 정보가 없으면 모른다고 답합니다.\n" +
-            "- 사용자가 한국어로 질문하면 한국어로, 영어로 질문하면 영어로 답변합니다.\n" +
+            "- 한국어·영어가 아닌 언어로 질문하면 그 언어로 답변합니다.\n" +
             "- 이벤트 관련 문의가 들어오면 제공된 이벤트 정보를 기반으로 정확하게 안내합니다.\n" +
-            "- 항상 친절하고 부드럽고 간결하게 응답합니다.\n\n" +
-            PROGRAM_LIST +
-            EVENT_DETAILS;
+            "- 항상 친절하고 부드럽고 간결하게 응답합니다.\n\n";
+
+    /**
+     * 모든 텍스트 챗봇 요청의 첫 메시지 (요청마다 바이트 단위로 동일해야 서버 프롬프트 캐시가 적중함)
+     * 요청마다 달라지는 프로그램 목록, 요약, 대화 기록은 이 뒤에 붙임
+     */
+    private static final String CHATBOT_STATIC_PREFIX = CHATBOT_PROMPT_HEAD + EVENT_DETAILS;
+
+    // ========== 영어 질문용 프롬프트 (한국어 지시문 없이 간결하게) ==========
+
+    private static final String EVENT_INFO_EN = "=== Event ===\n" +
+            "Name: 2025 CO-SHOW\n" +
+            "Dates: Nov 26 (Wed) - Nov 29 (Sat), 2025\n" +
+            "Venue: BEXCO Exhibition Center 1, Hall 2 and Hall 3A, Busan\n" +
+            "Audience: students and the general public\n" +
+            "Admission: free\n\n";
+
+    /**
+     * 이벤트 안내 요약 (홍보 문구/해시태그 제외)
+     */
+    private static final String EVENT_DETAILS_EN = "=== Events ===\n" +
+            "1) Exam-taker event: show a paper exam admission ticket at the event booth to get 2 stamps at once; " +
+            "collect all stamps for a prize draw (Galaxy Watch 8, Galaxy Buds 3 Pro, Keychron V10 Pro Max / B6 Pro keyboards, COSS-BALL keyring). " +
+            "Pick up a leaflet at the registration desk first. Once per person, all 4 days.\n" +
+            "2) Stamp tour: join programs, collect 8+ stamps on the leaflet, then submit it at the stamp tour booth " +
+            "(in the hall and in front of the BEXCO main stage) for a prize draw (Galaxy Watch 8, Galaxy Buds Pro 3, " +
+            "Apple Watch SE 3, AirPods Pro 3, Keychron V10 MAX / B6, COSS-BALL keyring). " +
+            "First 1,000 visitors per day, once per person, all 4 days.\n";
+
+    private static final String CHATBOT_PROMPT_HEAD_EN = "You are COSS-bot, the guide for 2025 CO-SHOW. Answer visitors in English, kindly and accurately.\n\n" +
+            EVENT_INFO_EN +
+            "=== Rules ===\n" +
+            "- Use only the tables and event info given here.\n" +
+            "- On a first question, don't list programs yet; ask 1-2 natural questions (companions, age, interests).\n" +
+            "- Learn target age, field, available time and mood over 2-3 turns.\n" +
+            "- Recommend up to 3 matching programs with a short reason each.\n" +
+            "- Never guess; if the info isn't here, say you don't know.\n" +
+            "- Keep answers friendly and short.\n\n";
+
+    private static final String CHATBOT_STATIC_PREFIX_EN = CHATBOT_PROMPT_HEAD_EN + EVENT_DETAILS_EN;
+
+    // ========== 대화 기록 관리 ==========
+
+    /**
+     * 원문 그대로 보낼 최근 대화의 토큰 예산 (넘는 부분은 요약으로 대체)
+     */
+    private static final int HISTORY_TOKEN_BUDGET = 1500;
+
+    private static final String SUMMARY_SYSTEM_PROMPT = "당신은 행사 안내 챗봇의 대화 기록을 요약하는 도우미입니다.\n" +
+            "기존 요약과 새 대화를 합쳐 방문객의 연령·동행·관심 분야·체험 시간, 이미 안내한 프로그램과 이벤트, " +
+            "남은 질문을 5줄 이내의 한국어 불릿으로 정리합니다. 인사말이나 불필요한 설명은 넣지 않습니다.";
+
+    // ========== 프로그램 검색 (Top-K RAG) ==========
+
+    /**
+     * 프롬프트에 넣을 관련 프로그램 수
+     */
+    private static final int RETRIEVAL_TOP_K = 8;
+
+    /**
+     * 검색 질의에 사용할 최근 사용자 발화 수
+     */
+    private static final int RETRIEVAL_RECENT_TURNS = 3;
+
+    // ========== 부스 검색 도구 (함수 호출) ==========
+
+    /**
+     * 한 응답에서 도구 호출 → 결과 → 재요청을 반복할 최대 횟수
+     */
+    private static final int MAX_TOOL_ROUNDS = 3;
+
+    private static final long TOOL_TIMEOUT_SECONDS = 5;
+
+    /**
+     * 도구를 쓸 때 프로그램 블록 맨 앞에 붙는 안내 (고정 문구라 캐시 접두사에 포함됨)
+     */
+    private static final String TOOL_GUIDE = "=== 부스 검색 도구 ===\n" +
+            "- 프로그램을 추천하거나 찾을 때는 search_booths 도구로 부스 DB를 검색하고, 자세한 정보가 필요하면 booth_details 도구를 사용합니다.\n" +
+            "- 아래 목록이나 도구 결과에 없는 프로그램은 안내하지 않습니다.\n\n";
+
+    private static final String TOOL_GUIDE_EN = "=== Booth search tools ===\n" +
+            "- To find or recommend programs, search the booth DB with search_booths; use booth_details for more detail.\n" +
+            "- Never mention programs that are not in the list below or in tool results.\n\n";
 
     // ========== 음성 대화용 시스템 프롬프트 (간결한 버전) ==========
 
     /**
-     * 음성 대화용 시스템 프롬프트 (간결한 버전)
+     * 음성 대화용 시스템 프롬프트 앞부분 (프로그램 목록은 ProgramKnowledge에서 붙임)
      */
-    private static final String AUDIO_SYSTEM_PROMPT = "당신은 2025 CO-SHOW 행사 안내 도우미, 이름은 코쓰봇(COSS-bot)입니다. 음성 대화이므로 매우 짧고 간결하게 답변해야 합니다.\n\n"
+    private static final String AUDIO_PROMPT_HEAD = "당신은 2025 CO-SHOW 행사 안내 도우미, 이름은 코쓰봇(COSS-bot)입니다. 음성 대화이므로 매우 짧고 간결하게 답변해야 합니다.\n\n"
             +
             EVENT_INFO +
             "=== 대화 규칙 (반드시 준수!) ===\n" +
@@ -221,9 +271,7 @@ public class OpenAIService {
             "2. **최대 2-3문장 이내**로 답변합니다.\n" +
             "3. 핵심 정보만 간결하게 전달합니다.\n" +
             "4. 프로그램 추천 시 최대 2개만 간단히 소개합니다.\n" +
-            "6. 추측하거나 만들어내지 않고, 정보가 없으면 \"해당 정보는 없습니다\"라고만 답합니다.\n\n" +
-            PROGRAM_LIST +
-            EVENT_DETAILS;
+            "6. 추측하거나 만들어내지 않고, 정보가 없으면 \"해당 정보는 없습니다\"라고만 답합니다.\n\n";
 
     public interface ChatCallback {
         void onSuccess(String response);
@@ -237,12 +285,486 @@ public class OpenAIService {
         void onComplete();
 
         void onError(String error);
+
+        /**
+         * 답변을 만든 엔진 (첫 onStream 전에 한 번 호출)
+         */
+        default void onAnswerSource(AnswerSource source) {
+        }
+    }
+
+    /**
+     * 답변 출처
+     */
+    public enum AnswerSource {
+        OPENAI,     // GPT 스트리밍
+        FAQ_CACHE,  // 자주 묻는 질문 캐시
+        OFFLINE     // 네트워크 없음 - 로컬 규칙 기반 답변
+    }
+
+    /**
+     * 진행 중인 스트리밍 요청 핸들
+     * cancel() 호출 시 OkHttp Call을 중단하고 이후 콜백은 전달하지 않음
+     * 헤지 요청이 시작되면 여러 Call이 연결될 수 있음
+     */
+    public static final class StreamHandle {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final List<Call> calls = new CopyOnWriteArrayList<>();
+        private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+
+        /**
+         * 요청 취소 (진행 중인 모든 Call과 작업 중단)
+         */
+        public void cancel() {
+            if (!cancelled.compareAndSet(false, true)) {
+                return;
+            }
+            for (Call c : calls) {
+                c.cancel();
+            }
+            for (Future<?> f : futures) {
+                f.cancel(true);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        /**
+         * Call 연결 (이미 취소된 경우 즉시 중단하고 false)
+         */
+        boolean attach(Call call) {
+            calls.add(call);
+            if (isCancelled()) {
+                call.cancel();
+                return false;
+            }
+            return true;
+        }
+
+        void attach(Future<?> future) {
+            futures.add(future);
+            if (isCancelled()) {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * 취소되지 않은 경우에만 메인 스레드로 콜백 전달
+         * 전달 직전에도 다시 확인하므로 cancel() 이후 도착한 콜백은 버려짐
+         */
+        void deliver(Handler handler, Runnable action) {
+            if (isCancelled()) {
+                return;
+            }
+            handler.post(() -> {
+                if (!isCancelled()) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * 스트리밍 요청 1건 (원 요청 + 헤지 요청 경쟁)
+     * 먼저 첫 토큰(또는 완료)을 받은 시도가 이기고, 나머지 시도는 취소됨
+     */
+    private final class StreamRequest {
+        private static final int PRIMARY = 0;
+        private static final int HEDGE = 1;
+
+        private final List<ChatMessage> messages;
+        private final StreamCallback callback;
+        private final StreamHandle handle;
+        private final String cacheQuestion;
+        private final long sloMs = firstTokenSloMs;
+        private long startMs;
+        private volatile long firstTokenAtMs;
+        private final AtomicReferenceArray<Call> calls = new AtomicReferenceArray<>(2);
+        private final AtomicInteger winner = new AtomicInteger(-1);
+        private int started = 0;
+        private int failed = 0;
+        private volatile ScheduledFuture<?> hedgeTimer;
+
+        StreamRequest(List<ChatMessage> messages, StreamCallback callback, StreamHandle handle, String cacheQuestion) {
+            this.messages = messages;
+            this.callback = callback;
+            this.handle = handle;
+            this.cacheQuestion = cacheQuestion;
+        }
+
+        void start() {
+            ChatMetrics.getInstance().recordStream();
+            startMs = SystemClock.elapsedRealtime();
+            synchronized (this) {
+                started = 1;
+            }
+            handle.attach(STREAM_EXECUTOR.submit(() -> run(PRIMARY, CHAT_MODEL)));
+        }
+
+        /**
+         * 원 요청이 한도 대기열을 통과한 뒤에 헤지 타이머 시작
+         * (대기열에서 기다린 시간까지 세면 한도가 빠듯할 때 헤지가 나가 부하만 두 배가 됨)
+         */
+        private void scheduleHedgeTimer() {
+            synchronized (this) {
+                if (sloMs <= 0 || hedgeTimer != null || started > HEDGE || winner.get() != -1) {
+                    return;
+                }
+                hedgeTimer = HEDGE_TIMER.schedule(() -> startHedge(false), sloMs, TimeUnit.MILLISECONDS);
+            }
+            handle.attach(hedgeTimer);
+        }
+
+        /**
+         * 헤지 요청 시작 (SLO 초과 또는 원 요청 실패 시, 요청당 1회)
+         */
+        private void startHedge(boolean afterError) {
+            String model = hedgeModel != null ? hedgeModel : CHAT_MODEL;
+            synchronized (this) {
+                // 원 요청이 재시도할 수 없는 오류로 이미 끝났으면 타이머 헤지도 보내지 않음
+                if (started > HEDGE || (!afterError && failed >= started)
+                        || winner.get() != -1 || handle.isCancelled()) {
+                    return;
+                }
+                started = 2;
+            }
+            ChatMetrics.getInstance().recordHedge(afterError);
+            Log.w(TAG, afterError
+                    ? "원 요청 실패, 헤지 요청 시작 (" + model + ")"
+                    : "첫 토큰 " + sloMs + "ms 초과, 헤지 요청 시작 (" + model + ")");
+            try {
+                handle.attach(STREAM_EXECUTOR.submit(() -> run(HEDGE, model)));
+            } catch (RejectedExecutionException e) {
+                Log.w(TAG, "헤지 요청 거부됨 (대기열 가득 참)");
+                onAttemptFailed(HEDGE, "요청이 많아 잠시 후 다시 시도해주세요.", false, false);
+            }
+        }
+
+        /**
+         * 첫 토큰(또는 완료)을 받은 시도가 승자 등록, 이미 다른 시도가 이겼으면 false
+         */
+        private boolean claim(int attempt, OpenAIHttpClient.ConnectionTrace trace) {
+            if (winner.get() == attempt) {
+                return true;
+            }
+            if (!winner.compareAndSet(-1, attempt)) {
+                return false;
+            }
+            firstTokenAtMs = SystemClock.elapsedRealtime();
+            long firstTokenMs = firstTokenAtMs - startMs;
+            ChatMetrics.getInstance().recordFirstToken(firstTokenMs, !trace.isNewConnection());
+            ChatTimings.record(ChatTimings.Metric.FIRST_TOKEN, firstTokenMs);
+            Log.d(TAG, "첫 토큰 " + firstTokenMs + "ms ("
+                    + (trace.isNewConnection() ? "새 연결 " + trace.getConnectMs() + "ms" : "기존 연결 재사용")
+                    + ", 시도 " + attempt + ")");
+            if (hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+            for (int i = 0; i < calls.length(); i++) {
+                Call other = calls.get(i);
+                if (i != attempt && other != null) {
+                    other.cancel();
+                }
+            }
+            if (attempt == HEDGE) {
+                ChatMetrics.getInstance().recordHedgeWin();
+            }
+            reportSource(AnswerSource.OPENAI, callback, handle);
+            return true;
+        }
+
+        private boolean lost(int attempt) {
+            int w = winner.get();
+            return w != -1 && w != attempt;
+        }
+
+        /**
+         * 승자가 없는 상태의 시도 실패 처리
+         * 헤지 전이고 다시 보내면 성공할 수 있는 오류(네트워크, 5xx)면 바로 헤지 요청으로 재시도,
+         * 모든 시도가 실패하면 오류 전달 (네트워크 오류로 모두 실패하면 오프라인 답변으로 대체)
+         * 4xx(잘못된 키/요청, 한도 초과)는 다시 보내도 같은 이유로 실패하므로 헤지하지 않음
+         *
+         * @param retryable 같은 요청을 다시 보내면 성공할 수 있는 오류인지
+         */
+        private void onAttemptFailed(int attempt, String error, boolean networkError, boolean retryable) {
+            boolean hedge;
+            boolean allFailed;
+            synchronized (this) {
+                failed++;
+                hedge = retryable && attempt == PRIMARY && started == 1 && sloMs > 0;
+                allFailed = failed >= started;
+            }
+            if (winner.get() != -1) {
+                return;
+            }
+            if (!hedge && hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+            if (hedge) {
+                if (hedgeTimer != null) {
+                    hedgeTimer.cancel(false);
+                }
+                startHedge(true);
+                return;
+            }
+            if (allFailed) {
+                if (networkError && offlineEngine != null) {
+                    Log.w(TAG, "네트워크 오류로 오프라인 답변 사용: " + error);
+                    answerOffline(messages, callback, handle);
+                    return;
+                }
+                handle.deliver(mainHandler, () -> callback.onError(error));
+            }
+        }
+
+        private void run(int attempt, String model) {
+            if (handle.isCancelled()) {
+                return;
+            }
+
+            boolean won = false;
+            try {
+                long buildStart = System.nanoTime();
+                JsonObject requestBody = buildRequestBody(messages, true);
+                requestBody.addProperty("model", model);
+                StringBuilder answer = new StringBuilder();
+                ChatMetrics.Usage usage = null;
+                long lastTokenNanos = 0;
+
+                // 도구 호출이 오면 결과를 대화에 붙여 같은 시도 안에서 이어서 요청
+                for (int round = 0; ; round++) {
+                    RequestBody body = RequestBody.create(requestBody.toString(), JSON);
+                    if (round == 0) {
+                        ChatTimings.record(ChatTimings.Metric.REQUEST_BUILD, (System.nanoTime() - buildStart) / 1000);
+                    }
+
+                    OpenAIHttpClient.ConnectionTrace trace = new OpenAIHttpClient.ConnectionTrace();
+                    Request.Builder builder = new Request.Builder()
+                            .url(API_URL)
+                            .addHeader("Authorization", "Bearer " + apiKey)
+                            .addHeader("Content-Type", "application/json")
+                            .post(body)
+                            .tag(OpenAIHttpClient.ConnectionTrace.class, trace);
+                    if (attempt == PRIMARY && round == 0) {
+                        builder.tag(OpenAIRateLimiter.GrantListener.class, waitedMs -> scheduleHedgeTimer());
+                    }
+                    Request request = builder.build();
+
+                    Call call = client.newCall(request);
+                    calls.set(attempt, call);
+                    // attach 이전에 cancel()되었거나 다른 시도가 이미 이긴 경우 즉시 중단
+                    if (!handle.attach(call) || lost(attempt)) {
+                        call.cancel();
+                        return;
+                    }
+
+                    ToolCallAccumulator toolCalls = new ToolCallAccumulator();
+                    boolean done = false;
+                    try (Response response = call.execute()) {
+                        ChatTimings.record(ChatTimings.Metric.REQUEST_BYTES, trace.getRequestBytes());
+                        ChatTimings.record(ChatTimings.Metric.RESPONSE_HEADERS, trace.getResponseHeadersMs());
+                        if (!response.isSuccessful()) {
+                            String errorBody = response.body() != null ? response.body().string() : "";
+                            Log.e(TAG, "API 오류 응답: " + errorBody);
+                            String error = errorMessage(response.code());
+                            if (won) {
+                                handle.deliver(mainHandler, () -> callback.onError(error));
+                            } else {
+                                onAttemptFailed(attempt, error, false, response.code() >= 500);
+                            }
+                            return;
+                        }
+
+                        // SSE 스트림 읽기 (BufferedSource에서 직접 파싱)
+                        ChatStreamParser parser = new ChatStreamParser(response.body().source());
+                        int event;
+                        while (!handle.isCancelled() && (event = parser.next()) != ChatStreamParser.END) {
+
+                            if (event == ChatStreamParser.DONE) {
+                                done = true;
+                                break;
+                            }
+
+                            if (event == ChatStreamParser.CONTENT) {
+                                String chunk = parser.content();
+                                if (!chunk.isEmpty()) {
+                                    if (!won) {
+                                        if (!claim(attempt, trace)) {
+                                            return;
+                                        }
+                                        won = true;
+                                    }
+                                    long now = System.nanoTime();
+                                    if (lastTokenNanos != 0) {
+                                        ChatTimings.record(ChatTimings.Metric.INTER_TOKEN, (now - lastTokenNanos) / 1_000_000);
+                                    }
+                                    lastTokenNanos = now;
+                                    answer.append(chunk);
+                                    handle.deliver(mainHandler, () -> callback.onStream(chunk));
+                                }
+                            } else if (event == ChatStreamParser.OTHER) {
+                                // content 없는 청크는 드물어서 (role, tool_calls, finish_reason, usage) Gson으로 처리
+                                JsonObject json = gson.fromJson(parser.payload(), JsonObject.class);
+                                ChatMetrics.Usage chunkUsage = recordUsage(json);
+                                if (chunkUsage != null) {
+                                    usage = chunkUsage;
+                                }
+                                // 도구 호출도 서버가 응답을 시작한 것이므로 경쟁에서 이긴 것으로 처리
+                                if (toolCalls.accept(json) && !won) {
+                                    if (!claim(attempt, trace)) {
+                                        return;
+                                    }
+                                    won = true;
+                                }
+                            }
+                        }
+                    }
+
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    if (!done) {
+                        // [DONE] 없이 연결이 끝남 (서버가 닫았거나 프록시가 잘라냄), 콜백 없이 끝내면 말풍선이 스트리밍 상태로 남음
+                        Log.w(TAG, "[DONE] 없이 스트림 종료 (시도 " + attempt + ", " + answer.length() + "자)");
+                        if (!won) {
+                            onAttemptFailed(attempt, "응답이 중간에 끊겼습니다.", true, true);
+                        } else if (answer.length() > 0 && toolCalls.isEmpty()) {
+                            // 받은 부분까지만 표시 (잘린 답변은 캐시하지 않음)
+                            recordCompletion(usage);
+                            handle.deliver(mainHandler, callback::onComplete);
+                        } else {
+                            handle.deliver(mainHandler, () -> callback.onError("응답이 중간에 끊겼습니다."));
+                        }
+                        return;
+                    }
+                    if (!toolCalls.isEmpty() && round < MAX_TOOL_ROUNDS) {
+                        appendToolResults(requestBody, toolCalls);
+                        if (round + 1 == MAX_TOOL_ROUNDS) {
+                            // 마지막 라운드는 도구를 더 부르지 못하게 해서 반드시 텍스트로 답하게 함 (빈 말풍선 방지)
+                            requestBody.addProperty("tool_choice", "none");
+                        }
+                        continue;
+                    }
+
+                    if (!claim(attempt, trace)) {
+                        return;
+                    }
+                    if (cacheQuestion != null) {
+                        answerCache.put(cacheQuestion, answer.toString());
+                    }
+                    recordCompletion(usage);
+                    handle.deliver(mainHandler, callback::onComplete);
+                    return;
+                }
+
+            } catch (Exception e) {
+                if (handle.isCancelled() || lost(attempt)) {
+                    Log.d(TAG, "스트리밍 취소됨 (시도 " + attempt + ")");
+                    return;
+                }
+                Log.e(TAG, "스트리밍 오류 (시도 " + attempt + ")", e);
+                // 한도 대기 시간 초과는 네트워크 문제가 아니므로 오프라인 답변 대신 한도 초과 안내
+                boolean rateLimited = e instanceof OpenAIRateLimiter.RateLimitedException;
+                String error = rateLimited ? errorMessage(429) : "스트리밍 오류: " + e.getMessage();
+                if (won) {
+                    // 이미 화면에 출력 중인 스트림이 끊긴 경우는 재시도하지 않음
+                    handle.deliver(mainHandler, () -> callback.onError(error));
+                } else {
+                    boolean networkError = e instanceof IOException && !rateLimited;
+                    // 차단기가 열려 있으면 헤지도 바로 거부되므로 재시도하지 않음
+                    boolean retryable = networkError && !(e instanceof OpenAICircuitBreaker.CircuitOpenException);
+                    onAttemptFailed(attempt, error, networkError, retryable);
+                }
+            }
+        }
+
+        /**
+         * 완료된 응답의 전체 시간과 생성 속도 (마지막 라운드의 응답 토큰 / 첫 토큰 이후 시간) 기록
+         */
+        private void recordCompletion(ChatMetrics.Usage usage) {
+            long now = SystemClock.elapsedRealtime();
+            ChatTimings.record(ChatTimings.Metric.TOTAL, now - startMs);
+            long generationMs = now - firstTokenAtMs;
+            if (usage != null && usage.completionTokens > 0 && generationMs > 0) {
+                ChatTimings.record(ChatTimings.Metric.TOKENS_PER_SECOND, usage.completionTokens * 1000L / generationMs);
+            }
+        }
+    }
+
+    /**
+     * 도구 호출을 실행하고 (assistant tool_calls + tool 결과) 메시지를 요청 본문에 추가
+     */
+    private void appendToolResults(JsonObject requestBody, ToolCallAccumulator toolCalls) throws Exception {
+        JsonArray messagesArray = requestBody.getAsJsonArray("messages");
+        messagesArray.add(toolCalls.toAssistantMessage());
+
+        List<Future<String>> results = new ArrayList<>();
+        for (ToolCallAccumulator.ToolCall call : toolCalls.getCalls()) {
+            results.add(boothTools.execute(call.name, call.arguments.toString()));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            JsonObject toolMessage = new JsonObject();
+            toolMessage.addProperty("role", "tool");
+            toolMessage.addProperty("tool_call_id", toolCalls.getCalls().get(i).id);
+            toolMessage.addProperty("content", awaitToolResult(results.get(i)));
+            messagesArray.add(toolMessage);
+        }
+    }
+
+    /**
+     * 도구 결과 대기 (실패나 시간 초과도 모델에 오류 결과로 돌려줘서 답변은 계속 받음)
+     */
+    private static String awaitToolResult(Future<String> result) throws InterruptedException {
+        try {
+            return result.get(TOOL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            Log.w(TAG, "도구 실행 시간 초과 (" + TOOL_TIMEOUT_SECONDS + "초)");
+            return BoothTools.error("도구 실행 시간 초과");
+        } catch (ExecutionException e) {
+            Log.e(TAG, "도구 실행 실패", e.getCause());
+            return BoothTools.error("도구 실행 오류: " + e.getCause());
+        }
     }
 
     public OpenAIService() {
-        this.client = new OkHttpClient();
+        this(null);
+    }
+
+    /**
+     * @param context FAQ 답변 캐시 저장 위치로 사용 (null이면 캐시 없이 동작)
+     */
+    public OpenAIService(Context context) {
+        this.client = OpenAIHttpClient.shared();
         this.gson = new Gson();
         this.mainHandler = new Handler(Looper.getMainLooper());
+        this.conversationContext = new ConversationContext(HISTORY_TOKEN_BUDGET, this::requestSummary);
+        this.answerCache = context != null ? FaqAnswerCache.getInstance(context) : null;
+        this.offlineEngine = context != null ? OfflineAnswerEngine.getInstance(context) : null;
+        this.boothTools = context != null ? BoothTools.getInstance(context) : null;
+        if (context != null) {
+            // 앱 시작 시 이미 생성했으면 무시됨
+            ProgramKnowledge.preload(context);
+        }
+        this.connectivityManager = context != null
+                ? (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE) : null;
+    }
+
+    private static ThreadPoolExecutor createStreamExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                STREAM_THREADS, STREAM_THREADS,
+                30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(STREAM_QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "openai-stream-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     /**
@@ -252,6 +774,17 @@ public class OpenAIService {
         this.apiKey = apiKey;
     }
 
+    /**
+     * 첫 토큰 지연 SLO 설정
+     *
+     * @param firstTokenTimeoutMs 이 시간 안에 첫 토큰이 오지 않으면 헤지 요청 시작 (0 이하면 헤지 끔)
+     * @param hedgeModel 헤지 요청에 사용할 모델 (null이면 같은 모델, 더 작은 모델 지정 가능)
+     */
+    public void setLatencySlo(long firstTokenTimeoutMs, String hedgeModel) {
+        this.firstTokenSloMs = firstTokenTimeoutMs;
+        this.hedgeModel = hedgeModel;
+    }
+
     /**
      * API 키가 설정되어 있는지 확인
      */
@@ -264,68 +797,123 @@ public class OpenAIService {
      * 
      * @param messages 대화 기록
      * @param callback 스트림 콜백
+     * @return 진행 중인 스트림을 취소할 수 있는 핸들
      */
-    public void sendMessageStreaming(List<ChatMessage> messages, StreamCallback callback) {
+    public StreamHandle sendMessageStreaming(List<ChatMessage> messages, StreamCallback callback) {
+        StreamHandle handle = new StreamHandle();
+
         if (!hasApiKey()) {
             callback.onError("API 키가 설정되지 않았습니다.");
-            return;
+            return handle;
         }
 
-        new Thread(() -> {
-            try {
-                JsonObject requestBody = buildRequestBody(messages, true);
-                RequestBody body = RequestBody.create(requestBody.toString(), JSON);
+        // 메인 스레드에서 대화 목록 스냅샷 (실행기 스레드에서 어댑터 목록을 직접 읽지 않도록)
+        List<ChatMessage> snapshot = new ArrayList<>(messages);
 
-                Request request = new Request.Builder()
-                        .url(API_URL)
-                        .addHeader("Authorization", "Bearer " + apiKey)
-                        .addHeader("Content-Type", "application/json")
-                        .post(body)
-                        .build();
+        // 자주 묻는 질문이면 캐시된 답변으로 바로 응답
+        // 캐시에는 첫 질문만 저장되므로 조회도 첫 질문만 (후속 질문은 앞 대화에 따라 답이 달라짐)
+        String question = lastUserQuestion(snapshot);
+        boolean firstQuestion = isFirstQuestion(snapshot);
+        if (answerCache != null && question != null && firstQuestion) {
+            String cached = answerCache.lookup(question);
+            Log.d(TAG, answerCache.getStats());
+            if (cached != null) {
+                reportSource(AnswerSource.FAQ_CACHE, callback, handle);
+                replayAnswer(cached, callback, handle);
+                return handle;
+            }
+        }
 
-                Response response = client.newCall(request).execute();
+        // 네트워크가 없으면 요청하지 않고 바로 로컬 답변
+        if (offlineEngine != null && !isNetworkAvailable()) {
+            Log.w(TAG, "네트워크 연결 없음, 오프라인 답변 사용");
+            answerOffline(snapshot, callback, handle);
+            return handle;
+        }
+        // OpenAI 장애로 차단 중이면 타임아웃을 기다리지 않고 로컬 답변
+        if (offlineEngine != null && OpenAICircuitBreaker.getInstance().isOpen()) {
+            Log.w(TAG, "OpenAI 요청 차단 중, 오프라인 답변 사용");
+            answerOffline(snapshot, callback, handle);
+            return handle;
+        }
+        // 대화 맥락에 의존하지 않는 첫 질문의 답변만 캐시에 저장
+        String cacheQuestion = answerCache != null && firstQuestion ? question : null;
 
-                if (!response.isSuccessful()) {
-                    String errorBody = response.body() != null ? response.body().string() : "";
-                    Log.e(TAG, "API 오류 응답: " + errorBody);
-                    mainHandler.post(() -> callback.onError("API 오류 (코드: " + response.code() + ")"));
-                    return;
-                }
+        try {
+            new StreamRequest(snapshot, callback, handle, cacheQuestion).start();
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "스트리밍 대기열이 가득 참", e);
+            callback.onError("요청이 많아 잠시 후 다시 시도해주세요.");
+        }
+        return handle;
+    }
 
-                // SSE 스트림 읽기
-                java.io.BufferedReader reader = new java.io.BufferedReader(
-                        new java.io.InputStreamReader(response.body().byteStream()));
+    /**
+     * 오프라인 엔진으로 답변 (미리 읽기가 끝나지 않았으면 부스 DB를 읽으므로 실행기 스레드에서 처리)
+     */
+    private void answerOffline(List<ChatMessage> messages, StreamCallback callback, StreamHandle handle) {
+        String question = lastUserQuestion(messages);
+        try {
+            handle.attach(STREAM_EXECUTOR.submit(() -> {
+                OfflineAnswerEngine.Answer answer = offlineEngine.answer(question);
+                reportSource(AnswerSource.OFFLINE, callback, handle);
+                replayAnswer(answer.text, callback, handle);
+            }));
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "오프라인 답변 대기열이 가득 참", e);
+            handle.deliver(mainHandler, () -> callback.onError("요청이 많아 잠시 후 다시 시도해주세요."));
+        }
+    }
 
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("data: ")) {
-                        String data = line.substring(6);
+    private void reportSource(AnswerSource source, StreamCallback callback, StreamHandle handle) {
+        ChatMetrics.getInstance().recordAnswerSource(source);
+        handle.deliver(mainHandler, () -> callback.onAnswerSource(source));
+    }
 
-                        // 스트림 종료 신호
-                        if (data.equals("[DONE]")) {
-                            mainHandler.post(callback::onComplete);
-                            break;
-                        }
+    /**
+     * 현재 인터넷에 연결된 네트워크가 있는지 (확인할 수 없으면 true)
+     */
+    private boolean isNetworkAvailable() {
+        if (connectivityManager == null) {
+            return true;
+        }
+        Network network = connectivityManager.getActiveNetwork();
+        if (network == null) {
+            return false;
+        }
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(network);
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
 
-                        try {
-                            // 청크 파싱
-                            String chunk = parseStreamChunk(data);
-                            if (chunk != null && !chunk.isEmpty()) {
-                                mainHandler.post(() -> callback.onStream(chunk));
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "청크 파싱 오류: " + e.getMessage());
-                        }
-                    }
-                }
+    /**
+     * 미리 만든 답변(캐시, 오프라인)을 스트리밍과 같은 콜백 순서(onStream → onComplete)로 전달
+     */
+    private void replayAnswer(String answer, StreamCallback callback, StreamHandle handle) {
+        for (int start = 0; start < answer.length(); start += CACHED_REPLAY_CHUNK_CHARS) {
+            String chunk = answer.substring(start, Math.min(answer.length(), start + CACHED_REPLAY_CHUNK_CHARS));
+            handle.deliver(mainHandler, () -> callback.onStream(chunk));
+        }
+        handle.deliver(mainHandler, callback::onComplete);
+    }
 
-                reader.close();
+    private static String lastUserQuestion(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message.isUser()) {
+                return message.getMessage();
+            }
+        }
+        return null;
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "스트리밍 오류", e);
-                mainHandler.post(() -> callback.onError("스트리밍 오류: " + e.getMessage()));
+    private static boolean isFirstQuestion(List<ChatMessage> messages) {
+        int userCount = 0;
+        for (ChatMessage message : messages) {
+            if (message.isUser()) {
+                userCount++;
             }
-        }).start();
+        }
+        return userCount == 1;
     }
 
     /**
@@ -355,7 +943,9 @@ public class OpenAIService {
                 @Override
                 public void onFailure(Call call, IOException e) {
                     Log.e(TAG, "API 호출 실패", e);
-                    mainHandler.post(() -> callback.onError("네트워크 오류: " + e.getMessage()));
+                    String error = e instanceof OpenAIRateLimiter.RateLimitedException
+                            ? errorMessage(429) : "네트워크 오류: " + e.getMessage();
+                    mainHandler.post(() -> callback.onError(error));
                 }
 
                 @Override
@@ -365,11 +955,12 @@ public class OpenAIService {
 
                         if (!response.isSuccessful()) {
                             Log.e(TAG, "API 오류 응답: " + responseBody);
-                            mainHandler.post(() -> callback.onError("API 오류 (코드: " + response.code() + ")"));
+                            mainHandler.post(() -> callback.onError(errorMessage(response.code())));
                             return;
                         }
 
                         String botMessage = parseResponse(responseBody);
+                        recordUsage(gson.fromJson(responseBody, JsonObject.class));
                         mainHandler.post(() -> callback.onSuccess(botMessage));
 
                     } catch (Exception e) {
@@ -385,26 +976,110 @@ public class OpenAIService {
         }
     }
 
+    /**
+     * 최근 사용자 발화 기준으로 프롬프트에 넣을 프로그램 블록 선택
+     * 검색 신뢰도가 낮으면 (인사, 모호한 질문 등) 도구 안내만 넣고 모델이 직접 검색하도록 하며,
+     * 도구를 쓸 수 없으면 전체 목록 사용 (목록과 안내 문구는 language로 렌더링)
+     */
+    private String selectProgramBlock(List<ChatMessage> messages, boolean useTools, LanguageDetector.Language language) {
+        StringBuilder query = new StringBuilder();
+        int turns = 0;
+        for (int i = messages.size() - 1; i >= 0 && turns < RETRIEVAL_RECENT_TURNS; i--) {
+            ChatMessage message = messages.get(i);
+            if (message.isUser()) {
+                query.append(message.getMessage()).append(' ');
+                turns++;
+            }
+        }
+
+        boolean english = language == LanguageDetector.Language.EN;
+        String toolGuide = english ? TOOL_GUIDE_EN : TOOL_GUIDE;
+        // 시작 시 미리 읽기가 아직 안 끝났으면 기다림 (스트리밍 스레드에서 호출됨)
+        ProgramKnowledge knowledge = ProgramKnowledge.await();
+        if (knowledge.isEmpty()) {
+            Log.w(TAG, "프로그램 목록을 만들지 못함" + (useTools ? ", 도구 검색 사용" : ", 목록 없이 요청"));
+            return useTools ? toolGuide : "";
+        }
+        ProgramKnowledge.Rendering catalog = knowledge.rendering(language);
+        ProgramRetriever.Result result = knowledge.retrieve(query.toString(), RETRIEVAL_TOP_K, language);
+        if (!result.confident) {
+            if (useTools) {
+                Log.d(TAG, "프로그램 검색 신뢰도 낮음 (score=" + result.topScore + "), 도구 검색 사용");
+                return toolGuide;
+            }
+            Log.d(TAG, "프로그램 검색 신뢰도 낮음 (score=" + result.topScore + "), 전체 목록 사용");
+            return catalog.block;
+        }
+
+        Log.d(TAG, "프로그램 검색: " + result.rows.size() + "/" + catalog.rows.size()
+                + "개 선택 (score=" + result.topScore + ")");
+        StringBuilder block = new StringBuilder(useTools ? toolGuide : "");
+        block.append(catalog.header);
+        block.append(english ? "=== Related programs (only those relevant to the question) ===\n"
+                : "=== 관련 프로그램 목록 (질문과 관련도가 높은 프로그램만 추린 목록) ===\n");
+        for (String row : result.rows) {
+            block.append(row).append('\n');
+        }
+        block.append("\n\n");
+        return block.toString();
+    }
+
     /**
      * OpenAI API 요청 본문 생성
      */
     private JsonObject buildRequestBody(List<ChatMessage> messages, boolean stream) {
         JsonObject requestBody = new JsonObject();
-        requestBody.addProperty("model", "gpt-4o-mini"); // 비용 효율적인 모델
+        requestBody.addProperty("model", CHAT_MODEL); // 비용 효율적인 모델
         requestBody.addProperty("temperature", 0.7); // 챗봇은 친절하게 (0.7)
-        requestBody.addProperty("max_tokens", 500); // 텍스트 챗봇은 상세하게
+        // 텍스트 챗봇은 상세하게 (공유 키의 토큰 한도가 빠듯하면 짧게)
+        requestBody.addProperty("max_tokens", OpenAIRateLimiter.getInstance().maxTokensFor(500));
         requestBody.addProperty("stream", stream); // 스트리밍 여부
+        if (stream) {
+            // 마지막 청크로 usage(캐시된 프롬프트 토큰 포함)를 받음
+            JsonObject streamOptions = new JsonObject();
+            streamOptions.addProperty("include_usage", true);
+            requestBody.add("stream_options", streamOptions);
+        }
+        // 부스 검색 도구 (스트리밍 요청만 도구 호출 루프를 처리함)
+        boolean useTools = stream && boothTools != null;
+        if (useTools) {
+            requestBody.add("tools", boothTools.getDefinitions());
+        }
 
         JsonArray messagesArray = new JsonArray();
 
-        // 시스템 프롬프트 추가 (RAG - 챗봇용)
+        // 질문 언어에 맞는 가장 작은 프롬프트 선택
+        // 한국어 고정 프롬프트는 캐시 최소 길이(1024 토큰)를 넘어 캐시되지만,
+        // 영어 고정 프롬프트는 그보다 짧아 캐시되지 않음 (대신 보내는 토큰 자체가 적음)
+        LanguageDetector.Language language = LanguageDetector.detect(messages);
+        String staticPrefix = language == LanguageDetector.Language.EN ? CHATBOT_STATIC_PREFIX_EN : CHATBOT_STATIC_PREFIX;
+        String programBlock = selectProgramBlock(messages, useTools, language);
+        Log.d(TAG, "프롬프트 선택: " + language + " (고정 " + ConversationContext.estimateTokens(staticPrefix)
+                + " + 프로그램 " + ConversationContext.estimateTokens(programBlock) + " 토큰)");
+
+        // 1. 고정 프롬프트 (소개 + 행사 정보 + 규칙 + 이벤트 안내, 캐시 대상)
         JsonObject systemMessage = new JsonObject();
         systemMessage.addProperty("role", "system");
-        systemMessage.addProperty("content", CHATBOT_SYSTEM_PROMPT);
+        systemMessage.addProperty("content", staticPrefix);
         messagesArray.add(systemMessage);
 
-        // 대화 기록 추가
-        for (ChatMessage message : messages) {
+        // 2. 프로그램 목록 (RAG - 관련 프로그램만, 검색 신뢰도가 낮으면 도구 검색 또는 고정된 전체 목록)
+        JsonObject programMessage = new JsonObject();
+        programMessage.addProperty("role", "system");
+        programMessage.addProperty("content", programBlock);
+        messagesArray.add(programMessage);
+
+        // 토큰 예산을 넘는 오래된 대화는 요약 메시지로 대체
+        ConversationContext.Window window = conversationContext.window(messages);
+        if (window.summary != null) {
+            JsonObject summaryMessage = new JsonObject();
+            summaryMessage.addProperty("role", "system");
+            summaryMessage.addProperty("content", "=== 이전 대화 요약 ===\n" + window.summary);
+            messagesArray.add(summaryMessage);
+        }
+
+        // 최근 대화 기록 추가
+        for (ChatMessage message : window.recent) {
             JsonObject msgObj = new JsonObject();
             msgObj.addProperty("role", message.isUser() ? "user" : "assistant");
             msgObj.addProperty("content", message.getMessage());
@@ -416,28 +1091,110 @@ public class OpenAIService {
     }
 
     /**
-     * 스트림 청크 파싱
+     * 접힌 대화 요약 요청 (ConversationContext.Summarizer)
+     * 이전 요약 + 새로 접힌 대화만 보내므로 요약 비용이 대화 길이에 비례해 늘지 않음
      */
-    private String parseStreamChunk(String chunkData) {
-        try {
-            JsonObject json = gson.fromJson(chunkData, JsonObject.class);
+    private void requestSummary(String previousSummary, List<ChatMessage> turns,
+            ConversationContext.SummaryCallback callback) {
+        if (!hasApiKey()) {
+            callback.onSummary(null);
+            return;
+        }
+
+        StringBuilder transcript = new StringBuilder();
+        if (previousSummary != null) {
+            transcript.append("[기존 요약]\n").append(previousSummary).append("\n\n");
+        }
+        transcript.append("[새 대화]\n");
+        for (ChatMessage message : turns) {
+            transcript.append(message.isUser() ? "방문객: " : "코쓰봇: ")
+                    .append(message.getMessage()).append('\n');
+        }
+
+        JsonObject requestBody = new JsonObject();
+        requestBody.addProperty("model", CHAT_MODEL);
+        requestBody.addProperty("temperature", 0.2);
+        requestBody.addProperty("max_tokens", 200);
 
-            if (json.has("choices") && json.getAsJsonArray("choices").size() > 0) {
-                JsonObject choice = json.getAsJsonArray("choices").get(0).getAsJsonObject();
+        JsonArray messagesArray = new JsonArray();
+        JsonObject systemMessage = new JsonObject();
+        systemMessage.addProperty("role", "system");
+        systemMessage.addProperty("content", SUMMARY_SYSTEM_PROMPT);
+        messagesArray.add(systemMessage);
+        JsonObject userMessage = new JsonObject();
+        userMessage.addProperty("role", "user");
+        userMessage.addProperty("content", transcript.toString());
+        messagesArray.add(userMessage);
+        requestBody.add("messages", messagesArray);
+
+        Request request = new Request.Builder()
+                .url(API_URL)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Content-Type", "application/json")
+                .post(RequestBody.create(requestBody.toString(), JSON))
+                .build();
 
-                if (choice.has("delta")) {
-                    JsonObject delta = choice.getAsJsonObject("delta");
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "대화 요약 실패: " + e.getMessage());
+                callback.onSummary(null);
+            }
 
-                    if (delta.has("content")) {
-                        return delta.get("content").getAsString();
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    String responseBody = r.body() != null ? r.body().string() : "";
+                    if (!r.isSuccessful()) {
+                        Log.w(TAG, "대화 요약 오류 응답 (코드: " + r.code() + ")");
+                        callback.onSummary(null);
+                        return;
                     }
+                    callback.onSummary(parseResponse(responseBody));
+                } catch (Exception e) {
+                    Log.w(TAG, "대화 요약 파싱 실패: " + e.getMessage());
+                    callback.onSummary(null);
                 }
             }
-        } catch (Exception e) {
-            Log.e(TAG, "청크 파싱 실패: " + e.getMessage());
+        });
+    }
+
+    /**
+     * 화면에 보여줄 API 오류 문구 (429는 재시도 후에도 한도 초과인 경우)
+     */
+    private static String errorMessage(int code) {
+        if (code == 429) {
+            return "요청이 많아 잠시 후 다시 시도해주세요.";
         }
+        return "API 오류 (코드: " + code + ")";
+    }
 
-        return null;
+    /**
+     * 대화 요약 상태 초기화 (채팅 초기화 시 호출)
+     */
+    public void resetConversation() {
+        conversationContext.reset();
+    }
+
+    /**
+     * 응답(또는 스트림 청크)의 usage 블록을 지표에 반영
+     *
+     * @return usage 블록이 있으면 파싱 결과, 없으면 null
+     */
+    private ChatMetrics.Usage recordUsage(JsonObject json) {
+        if (json == null) {
+            return null;
+        }
+        ChatMetrics.Usage usage = ChatMetrics.Usage.fromJson(json.get("usage"));
+        if (usage == null) {
+            return null;
+        }
+        ChatMetrics metrics = ChatMetrics.getInstance();
+        metrics.record(usage);
+        ChatTimings.record(ChatTimings.Metric.PROMPT_TOKENS, usage.promptTokens);
+        ChatTimings.record(ChatTimings.Metric.COMPLETION_TOKENS, usage.completionTokens);
+        Log.d(TAG, "토큰 사용량: " + usage + " / " + metrics.getStats());
+        return usage;
     }
 
     /**
@@ -456,17 +1213,25 @@ public class OpenAIService {
     }
 
     /**
-     * 챗봇용 시스템 프롬프트 가져오기 (텍스트 대화)
+     * 챗봇용 시스템 프롬프트 가져오기 (텍스트 대화, 목록을 읽는 중이면 기다리므로 메인 스레드에서 호출하지 않음)
      */
     public String getChatbotSystemPrompt() {
-        return CHATBOT_SYSTEM_PROMPT;
+        return CHATBOT_PROMPT_HEAD + programCatalog() + EVENT_DETAILS;
     }
 
     /**
-     * 음성 대화용 시스템 프롬프트 가져오기 (간결한 버전)
+     * 음성 대화용 시스템 프롬프트 가져오기 (간결한 버전, 메인 스레드에서 호출하지 않음)
      */
     public String getAudioSystemPrompt() {
-        return AUDIO_SYSTEM_PROMPT;
+        return AUDIO_PROMPT_HEAD + programCatalog() + EVENT_DETAILS;
+    }
+
+    private static String programCatalog() {
+        ProgramKnowledge knowledge = ProgramKnowledge.await();
+        if (knowledge.isEmpty()) {
+            Log.w(TAG, "프로그램 목록을 만들지 못해 목록 없이 프롬프트 생성");
+        }
+        return knowledge.rendering(LanguageDetector.Language.KO).block;
     }
 
     /**
@@ -474,6 +1239,6 @@ public class OpenAIService {
      */
     @Deprecated
     public String getSystemPrompt() {
-        return CHATBOT_SYSTEM_PROMPT;
+        return getChatbotSystemPrompt();
     }
 }
@@ -0,0 +1,363 @@
+package com.example.temidummyapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.temidummyapp.db.EventSearchHelper;
+import com.example.temidummyapp.utils.CSVLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 챗봇 프롬프트용 프로그램 목록 (events 테이블에서 앱 시작 시 1회 생성)
+ * 손으로 관리하던 목록 대신 부스 DB를 유일한 원본으로 사용하고,
+ * 반복되는 값은 코드로 줄여 프롬프트 토큰을 아낌
+ * - 참여대상/분야: T1, F1 같은 코드 + 범례
+ * - 접수 방법/체험기간/체험시간: 가장 흔한 값을 기본값으로 한 번만 적고, 다른 행만 비고에 표시
+ * 생성된 블록은 불변 문자열로 캐시되어 요청마다 바이트 단위로 동일함
+ */
+public final class ProgramKnowledge {
+    private static final String TAG = "ProgramKnowledge";
+
+    /**
+     * 한 언어로 렌더링한 목록 (형식 설명/범례/비고 문구만 언어별, 제목과 소개는 DB 원문)
+     */
+    public static final class Rendering {
+        /**
+         * 형식 설명 + 범례 + 전체 프로그램 목록
+         */
+        public final String block;
+        /**
+         * 형식 설명 + 범례 (검색으로 추린 행 앞에 붙임)
+         */
+        public final String header;
+        /**
+         * 코드로 줄인 프로그램 행 (id 순)
+         */
+        public final List<String> rows;
+
+        Rendering(String block, String header, List<String> rows) {
+            this.block = block;
+            this.header = header;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * 언어별 고정 문구
+     */
+    private static final class Labels {
+        final String format;
+        final String target;
+        final String field;
+        final String defaults;
+        final String list;
+        final String method;
+        final String period;
+        final String hours;
+        final Map<String, String> values;
+
+        Labels(String format, String target, String field, String defaults, String list,
+                String method, String period, String hours, Map<String, String> values) {
+            this.format = format;
+            this.target = target;
+            this.field = field;
+            this.defaults = defaults;
+            this.list = list;
+            this.method = method;
+            this.period = period;
+            this.hours = hours;
+            this.values = values;
+        }
+
+        String translate(String value) {
+            String translated = values.get(value);
+            return translated != null ? translated : value;
+        }
+    }
+
+    private static final Labels KOREAN = new Labels(
+            "=== 프로그램 데이터 형식 ===\n"
+                    + "id\t대상\t분야\t제목\t소개\t소요(분)\t비고\n"
+                    + "- id는 booth_details 도구의 id와 같습니다.\n",
+            "- 대상: ", "- 분야: ", "- 기본값 (비고에 따로 적힌 경우 제외): ",
+            "=== 프로그램 목록 ===\n",
+            "접수 ", "기간 ", "시간 ", Collections.<String, String>emptyMap());
+
+    private static final Labels ENGLISH = new Labels(
+            "=== Program data format ===\n"
+                    + "id\ttarget\tfield\ttitle\tintro\tminutes\tnote\n"
+                    + "- id is the booth_details tool id. Titles and intros are in Korean; translate them in answers.\n",
+            "- target: ", "- field: ", "- defaults (unless noted): ",
+            "=== Program list ===\n",
+            "sign-up ", "period ", "hours ", englishValues());
+
+    /**
+     * 아직 DB를 읽지 못했을 때 (빈 목록, 검색 결과 없음)
+     * 생성에 KOREAN/ENGLISH 문구를 쓰므로 반드시 그 뒤에 선언
+     */
+    static final ProgramKnowledge EMPTY = build(Collections.<HashMap<String, String>>emptyList());
+
+    private static volatile ProgramKnowledge current = EMPTY;
+    private static boolean loading = false;
+    // load()가 동시에 DB를 읽지 않도록 (preload의 loading 플래그와 달리 메인 스레드에서 잡지 않음)
+    private static final Object LOAD_LOCK = new Object();
+    // preload에서 받은 앱 컨텍스트 (컨텍스트 없이 호출되는 await()용)
+    private static volatile Context appContext;
+
+    private final Rendering korean;
+    private final Rendering english;
+    // 검색용 문서 (코드를 원래 값으로 풀어 쓴 행, 프로그램 행과 같은 순서)
+    // 같은 프로그램을 여러 부스가 운영하면 문서 내용이 같아도 부스마다 따로 둠
+    private final ProgramRetriever retriever;
+
+    private ProgramKnowledge(Rendering korean, Rendering english, List<String> documents) {
+        this.korean = korean;
+        this.english = english;
+        this.retriever = new ProgramRetriever(documents);
+    }
+
+    /**
+     * 현재 캐시된 목록 (아직 생성 전이면 EMPTY)
+     */
+    public static ProgramKnowledge get() {
+        return current;
+    }
+
+    /**
+     * 목록이 아직 없으면 바로 DB에서 생성해서 반환 (미리 읽는 중이면 끝날 때까지 대기)
+     * 시작 시 미리 읽기가 실패했어도 다시 시도함, 메인 스레드에서 호출하지 않음
+     *
+     * @return 생성한 목록 (preload 전이거나 다시 실패하면 EMPTY)
+     */
+    public static ProgramKnowledge await() {
+        ProgramKnowledge knowledge = current;
+        Context context = appContext;
+        if (knowledge != EMPTY || context == null) {
+            return knowledge;
+        }
+        return load(context);
+    }
+
+    /**
+     * 백그라운드 스레드에서 DB를 읽어 목록 생성 (이미 생성했거나 생성 중이면 무시)
+     */
+    public static void preload(Context context) {
+        final Context appContext = context.getApplicationContext();
+        ProgramKnowledge.appContext = appContext;
+        synchronized (ProgramKnowledge.class) {
+            if (current != EMPTY || loading) {
+                return;
+            }
+            loading = true;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                load(appContext);
+            } finally {
+                synchronized (ProgramKnowledge.class) {
+                    loading = false;
+                }
+            }
+        }, "program-knowledge");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * DB에서 목록 생성 (DB가 비어 있으면 CSV에서 채움, 메인 스레드에서 호출하지 않음)
+     */
+    static ProgramKnowledge load(Context context) {
+        synchronized (LOAD_LOCK) {
+            ProgramKnowledge knowledge = current;
+            if (knowledge != EMPTY) {
+                return knowledge;
+            }
+            try {
+                CSVLoader.loadIfEmpty(context);
+                List<HashMap<String, String>> programs = new EventSearchHelper(context).search(null, null, null, null);
+                knowledge = build(programs);
+                current = knowledge;
+                Log.d(TAG, "프로그램 목록 생성: " + knowledge.korean.rows.size() + "개, "
+                        + knowledge.korean.block.length() + "자 (영어 " + knowledge.english.block.length() + "자)");
+            } catch (Exception e) {
+                Log.e(TAG, "프로그램 목록 생성 실패", e);
+            }
+            return knowledge;
+        }
+    }
+
+    /**
+     * events 행으로 언어별 프롬프트 블록 생성
+     */
+    static ProgramKnowledge build(List<HashMap<String, String>> programs) {
+        List<String> documents = new ArrayList<>(programs.size());
+        for (HashMap<String, String> program : programs) {
+            // 검색은 코드가 아닌 원래 값으로 (분야/대상 단어로 찾을 수 있도록)
+            documents.add(value(program, "분야") + "\t" + value(program, "대제목") + "\t"
+                    + value(program, "한줄소개") + "\t" + value(program, "참여대상"));
+        }
+        return new ProgramKnowledge(render(programs, KOREAN), render(programs, ENGLISH), documents);
+    }
+
+    private static Rendering render(List<HashMap<String, String>> programs, Labels labels) {
+        Map<String, String> targetCodes = codes(programs, "참여대상", "T");
+        Map<String, String> fieldCodes = codes(programs, "분야", "F");
+        String method = mostCommon(programs, "사전모집여부");
+        String period = mostCommon(programs, "체험기간");
+        String hours = mostCommon(programs, "체험시간");
+
+        StringBuilder header = new StringBuilder(labels.format);
+        header.append(labels.target).append(legend(targetCodes, labels)).append('\n');
+        header.append(labels.field).append(legend(fieldCodes, labels)).append('\n');
+        header.append(labels.defaults)
+                .append(labels.method).append(labels.translate(method)).append(", ")
+                .append(labels.period).append(period).append(", ")
+                .append(labels.hours).append(hours).append("\n\n");
+
+        List<String> rows = new ArrayList<>(programs.size());
+        for (HashMap<String, String> program : programs) {
+            List<String> notes = new ArrayList<>();
+            String programMethod = value(program, "사전모집여부");
+            if (!programMethod.isEmpty() && !programMethod.equals(method)) {
+                notes.add(labels.method + labels.translate(programMethod));
+            }
+            addIfDifferent(notes, labels.period, value(program, "체험기간"), period);
+            addIfDifferent(notes, labels.hours, value(program, "체험시간"), hours);
+
+            String minutes = value(program, "소요시간");
+            if (minutes.isEmpty()) {
+                minutes = value(program, "소요시간_원본");
+            }
+
+            StringBuilder row = new StringBuilder();
+            row.append(value(program, "id"))
+                    .append('\t').append(targetCodes.get(value(program, "참여대상")))
+                    .append('\t').append(fieldCodes.get(value(program, "분야")))
+                    .append('\t').append(value(program, "대제목"))
+                    .append('\t').append(value(program, "한줄소개"))
+                    .append('\t').append(minutes);
+            if (!notes.isEmpty()) {
+                row.append('\t');
+                for (int i = 0; i < notes.size(); i++) {
+                    row.append(i > 0 ? ", " : "").append(notes.get(i));
+                }
+            }
+            rows.add(row.toString());
+        }
+
+        if (rows.isEmpty()) {
+            return new Rendering("", "", Collections.<String>emptyList());
+        }
+        StringBuilder block = new StringBuilder(header);
+        block.append(labels.list);
+        for (String row : rows) {
+            block.append(row).append('\n');
+        }
+        block.append("\n\n");
+        return new Rendering(block.toString(), header.toString(), Collections.unmodifiableList(rows));
+    }
+
+    public Rendering rendering(LanguageDetector.Language language) {
+        return language == LanguageDetector.Language.EN ? english : korean;
+    }
+
+    /**
+     * 질문과 관련도가 높은 상위 topK개 프로그램 행 검색 (행은 지정한 언어의 렌더링)
+     */
+    public ProgramRetriever.Result retrieve(String query, int topK, LanguageDetector.Language language) {
+        ProgramRetriever.Result result = retriever.retrieve(query, topK);
+        List<String> rows = rendering(language).rows;
+        List<String> matched = new ArrayList<>(result.indices.size());
+        for (int index : result.indices) {
+            matched.add(rows.get(index));
+        }
+        return new ProgramRetriever.Result(matched, result.indices, result.topScore, result.confident);
+    }
+
+    public boolean isEmpty() {
+        return korean.rows.isEmpty();
+    }
+
+    /**
+     * 등장 순서대로 코드 부여 (prefix + 1, 2, ...)
+     */
+    private static Map<String, String> codes(List<HashMap<String, String>> programs, String column, String prefix) {
+        Map<String, String> codes = new LinkedHashMap<>();
+        for (HashMap<String, String> program : programs) {
+            String value = value(program, column);
+            if (!codes.containsKey(value)) {
+                codes.put(value, prefix + (codes.size() + 1));
+            }
+        }
+        return codes;
+    }
+
+    private static String legend(Map<String, String> codes, Labels labels) {
+        StringBuilder legend = new StringBuilder();
+        for (Map.Entry<String, String> entry : codes.entrySet()) {
+            if (legend.length() > 0) {
+                legend.append(", ");
+            }
+            legend.append(entry.getValue()).append('=').append(labels.translate(entry.getKey()));
+        }
+        return legend.toString();
+    }
+
+    /**
+     * 열에서 가장 흔한 값 (프롬프트의 기본값, 오프라인 답변의 대표 운영 시간)
+     */
+    static String mostCommon(List<HashMap<String, String>> programs, String column) {
+        Map<String, Integer> counts = new HashMap<>();
+        String best = "";
+        int bestCount = 0;
+        for (HashMap<String, String> program : programs) {
+            String value = value(program, column);
+            Integer count = counts.get(value);
+            count = count == null ? 1 : count + 1;
+            counts.put(value, count);
+            if (count > bestCount) {
+                best = value;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static void addIfDifferent(List<String> notes, String label, String value, String defaultValue) {
+        if (!value.isEmpty() && !value.equals(defaultValue)) {
+            notes.add(label + value);
+        }
+    }
+
+    /**
+     * 영어 렌더링에서 번역할 대상/접수 값 (분야와 제목은 모델이 번역)
+     */
+    private static Map<String, String> englishValues() {
+        Map<String, String> values = new HashMap<>();
+        values.put("누구나", "anyone");
+        values.put("초등학생 이상", "elementary school+");
+        values.put("초등학생(고학년)이상", "upper elementary+");
+        values.put("중학생 이상", "middle school+");
+        values.put("고등학생 이상", "high school+");
+        values.put("현장접수", "on-site");
+        values.put("사전접수", "pre-registration");
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * 탭/줄바꿈은 행 구분과 겹치므로 공백으로 바꾸고, CSV 적재 시 두 번 쓴 작은따옴표를 되돌림
+     */
+    private static String value(Map<String, String> program, String column) {
+        String value = program.get(column);
+        if (value == null) {
+            return "";
+        }
+        return value.replace("''", "'").replaceAll("\\s+", " ").trim();
+    }
+}
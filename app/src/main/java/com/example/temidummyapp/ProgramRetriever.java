@@ -0,0 +1,162 @@
+package com.example.temidummyapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 프로그램 목록 로컬 검색기 (BM25 + 문자 2-gram)
+ * 최근 사용자 질문과 관련된 프로그램 행만 골라 프롬프트에 넣기 위해 사용
+ * 한국어는 띄어쓰기/조사가 불규칙하므로 단어 대신 문자 2-gram 단위로 색인
+ */
+public class ProgramRetriever {
+    // BM25 파라미터 (일반적인 기본값)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * 최상위 점수가 이 값보다 낮으면 검색 결과를 신뢰하지 않음 (전체 목록 사용)
+     * 희귀한 2-gram 하나가 정확히 맞으면 대략 3~4점
+     */
+    private static final double MIN_CONFIDENT_SCORE = 3.5;
+
+    /**
+     * 질문에서 제외할 대화체 2-gram (카탈로그 소개 문구와 우연히 겹쳐 오탐을 만듦)
+     */
+    private static final Set<String> QUERY_STOP_TERMS = new HashSet<>(Arrays.asList(
+            "추천", "천해", "해줘", "알려", "려줘", "싶어", "하고", "있어", "어디", "뭐야",
+            "해요", "어요", "나요", "까요", "주세", "세요", "그램", "프로", "오늘", "내일"));
+
+    private final List<String> rows;
+    private final List<Map<String, Integer>> termFreqs;
+    private final int[] docLengths;
+    private final Map<String, Integer> docFreqs = new HashMap<>();
+    private final double avgDocLength;
+
+    /**
+     * 검색 결과
+     */
+    public static class Result {
+        public final List<String> rows;
+        // rows 각각의 문서 번호 (생성자에 넘긴 목록 기준, 내용이 같은 문서도 구분됨)
+        public final List<Integer> indices;
+        public final double topScore;
+        public final boolean confident;
+
+        Result(List<String> rows, List<Integer> indices, double topScore, boolean confident) {
+            this.rows = rows;
+            this.indices = indices;
+            this.topScore = topScore;
+            this.confident = confident;
+        }
+    }
+
+    public ProgramRetriever(List<String> rows) {
+        this.rows = new ArrayList<>(rows);
+        this.termFreqs = new ArrayList<>(rows.size());
+        this.docLengths = new int[rows.size()];
+
+        long totalLength = 0;
+        for (int i = 0; i < this.rows.size(); i++) {
+            List<String> terms = tokenize(this.rows.get(i));
+            Map<String, Integer> tf = new HashMap<>();
+            for (String term : terms) {
+                Integer count = tf.get(term);
+                tf.put(term, count == null ? 1 : count + 1);
+            }
+            for (String term : tf.keySet()) {
+                Integer df = docFreqs.get(term);
+                docFreqs.put(term, df == null ? 1 : df + 1);
+            }
+            termFreqs.add(tf);
+            docLengths[i] = terms.size();
+            totalLength += terms.size();
+        }
+        this.avgDocLength = rows.isEmpty() ? 0 : (double) totalLength / rows.size();
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * 질문과 관련도가 높은 상위 topK개 행 검색
+     */
+    public Result retrieve(String query, int topK) {
+        if (query == null || query.trim().isEmpty() || rows.isEmpty()) {
+            return new Result(Collections.<String>emptyList(), Collections.<Integer>emptyList(), 0, false);
+        }
+
+        // 질문 안에서 중복된 2-gram은 한 번만 반영
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        queryTerms.removeAll(QUERY_STOP_TERMS);
+
+        final double[] scores = new double[rows.size()];
+        for (String term : queryTerms) {
+            Integer df = docFreqs.get(term);
+            if (df == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (rows.size() - df + 0.5) / (df + 0.5));
+            for (int i = 0; i < rows.size(); i++) {
+                Integer tf = termFreqs.get(i).get(term);
+                if (tf == null) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * docLengths[i] / avgDocLength);
+                scores[i] += idf * (tf * (K1 + 1)) / (tf + norm);
+            }
+        }
+
+        Integer[] order = new Integer[rows.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        List<String> top = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < order.length && top.size() < topK; i++) {
+            if (scores[order[i]] <= 0) {
+                break;
+            }
+            top.add(rows.get(order[i]));
+            indices.add(order[i]);
+        }
+
+        double topScore = order.length > 0 ? scores[order[0]] : 0;
+        return new Result(top, indices, topScore, topScore >= MIN_CONFIDENT_SCORE);
+    }
+
+    /**
+     * 문자/숫자 연속 구간을 2-gram으로 분해 (1글자 구간은 그대로 사용)
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int runStart = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inWord && runStart < 0) {
+                runStart = i;
+            } else if (!inWord && runStart >= 0) {
+                if (i - runStart == 1) {
+                    terms.add(lower.substring(runStart, i));
+                } else {
+                    for (int j = runStart; j + 2 <= i; j++) {
+                        terms.add(lower.substring(j, j + 2));
+                    }
+                }
+                runStart = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -13,6 +13,7 @@ import org.json.JSONObject;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -55,7 +56,12 @@ public class RealtimeSTTService {
     
     public RealtimeSTTService(Context context) {
         this.context = context.getApplicationContext();
-        this.client = new OkHttpClient.Builder().build();
+        // 연결 요청도 공유 클라이언트의 속도 제한을 거치도록 파생 (타임아웃은 OkHttp 기본값 유지)
+        this.client = OpenAIHttpClient.shared().newBuilder()
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .writeTimeout(10, TimeUnit.SECONDS)
+                .build();
         this.mainHandler = new Handler(Looper.getMainLooper());
     }
     
@@ -103,7 +109,9 @@ public class RealtimeSTTService {
                 Log.e(TAG, "WebSocket 실패", t);
                 mainHandler.post(() -> {
                     if (callback != null) {
-                        callback.onError("연결 실패: " + t.getMessage());
+                        callback.onError(t instanceof OpenAICircuitBreaker.CircuitOpenException
+                                ? "음성 인식 서버에 연결할 수 없습니다. 글자로 입력해주세요."
+                                : "연결 실패: " + t.getMessage());
                     }
                 });
                 stopRealtimeSTT();
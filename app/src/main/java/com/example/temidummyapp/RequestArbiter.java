@@ -0,0 +1,189 @@
+package com.example.temidummyapp;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 대화 하나의 GPT 요청 순서 조정 (텍스트 입력, 배치/실시간 STT가 모두 이 경로로 전송)
+ * 답변이 스트리밍되는 중에 새 발화가 오면 정책에 따라 처리하고, 한 번에 한 턴만 요청함
+ * - CANCEL_AND_REPLACE: 진행 중인 스트림을 바로 취소하고 새 발화로 요청
+ * - QUEUE: 진행 중인 답변이 끝나면 도착 순서대로 한 턴씩 요청
+ * - MERGE: 답변 중에 온 발화를 모두 합쳐 다음 한 턴으로 요청
+ * 모든 메서드는 메인 스레드에서 호출 (콜백도 메인 스레드로 오므로 순서가 항상 결정적임)
+ */
+public final class RequestArbiter {
+    private static final String TAG = "RequestArbiter";
+
+    public enum Policy {
+        CANCEL_AND_REPLACE,
+        QUEUE,
+        MERGE
+    }
+
+    /**
+     * 요청할 턴 (Host.beginTurn이 대화에 발화를 추가한 뒤 반환)
+     */
+    public static final class Turn {
+        final List<ChatMessage> messages;
+        final OpenAIService.StreamCallback callback;
+
+        public Turn(List<ChatMessage> messages, OpenAIService.StreamCallback callback) {
+            this.messages = messages;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * 화면 쪽 처리 (ChatActivity)
+     */
+    public interface Host {
+        /**
+         * 차례가 된 발화를 대화에 추가하고, 요청에 보낼 대화 목록과 스트림 콜백 반환
+         */
+        Turn beginTurn(String text);
+
+        /**
+         * 진행 중이던 턴이 취소됨 (받은 부분 정리, 읽기 중단)
+         */
+        void onTurnCancelled();
+
+        /**
+         * 발화가 대기 중인 턴에 들어감
+         *
+         * @param pending 대기 중인 턴 수
+         */
+        default void onTurnDeferred(int pending) {
+        }
+    }
+
+    private final OpenAIService service;
+    private final Host host;
+    private volatile Policy policy;
+
+    private final Deque<String> pending = new ArrayDeque<>();
+    private OpenAIService.StreamHandle active;
+    // 턴마다 증가 (취소된 턴의 늦은 완료 콜백이 다음 턴을 시작하지 않도록)
+    private int turnSeq = 0;
+
+    public RequestArbiter(OpenAIService service, Policy policy, Host host) {
+        this.service = service;
+        this.policy = policy;
+        this.host = host;
+    }
+
+    public void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 응답 중이거나 대기 중인 턴이 있는지
+     */
+    public boolean isBusy() {
+        return active != null || !pending.isEmpty();
+    }
+
+    /**
+     * 사용자 발화 전송
+     */
+    public void submit(String text) {
+        if (active == null) {
+            startTurn(text);
+            return;
+        }
+        switch (policy) {
+            case CANCEL_AND_REPLACE:
+                Log.d(TAG, "답변 중 새 질문, 진행 중인 스트림 취소 후 교체");
+                cancelActive();
+                pending.clear();
+                startTurn(text);
+                break;
+            case QUEUE:
+                pending.addLast(text);
+                Log.d(TAG, "답변 중 새 질문, 대기열에 추가 (" + pending.size() + "개 대기)");
+                host.onTurnDeferred(pending.size());
+                break;
+            case MERGE:
+                String merged = pending.pollLast();
+                pending.addLast(merged == null ? text : merged + "\n" + text);
+                Log.d(TAG, "답변 중 새 질문, 다음 턴에 합침");
+                host.onTurnDeferred(pending.size());
+                break;
+        }
+    }
+
+    /**
+     * 진행 중인 턴과 대기 중인 턴 모두 취소 (화면 이탈, 초기화, 음성 대화 전환)
+     */
+    public void cancelAll() {
+        pending.clear();
+        cancelActive();
+    }
+
+    private void cancelActive() {
+        if (active == null) {
+            return;
+        }
+        // OkHttp Call을 바로 끊으므로 남은 토큰을 더 받지 않음
+        active.cancel();
+        active = null;
+        turnSeq++;
+        host.onTurnCancelled();
+    }
+
+    private void startTurn(String text) {
+        final int seq = ++turnSeq;
+        Turn turn = host.beginTurn(text);
+        final OpenAIService.StreamCallback callback = turn.callback;
+        // API 키 없음 등으로 콜백이 즉시 호출될 수 있음
+        final boolean[] finished = {false};
+        OpenAIService.StreamHandle handle = service.sendMessageStreaming(turn.messages, new OpenAIService.StreamCallback() {
+            @Override
+            public void onStream(String chunk) {
+                callback.onStream(chunk);
+            }
+
+            @Override
+            public void onAnswerSource(OpenAIService.AnswerSource source) {
+                callback.onAnswerSource(source);
+            }
+
+            @Override
+            public void onComplete() {
+                callback.onComplete();
+                finished[0] = true;
+                finishTurn(seq);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+                finished[0] = true;
+                finishTurn(seq);
+            }
+        });
+        if (!finished[0]) {
+            active = handle;
+        }
+    }
+
+    /**
+     * 턴 종료 후 대기 중인 다음 턴 시작
+     */
+    private void finishTurn(int seq) {
+        if (seq != turnSeq) {
+            return;
+        }
+        active = null;
+        String next = pending.pollFirst();
+        if (next != null) {
+            startTurn(next);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.temidummyapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 스트리밍 텍스트를 문장 단위로 자르는 분할기 (한국어/영어)
+ * 마침표/물음표/느낌표 뒤에 공백이나 줄바꿈이 오거나 줄이 바뀌면 문장이 끝난 것으로 봄
+ * 마지막 문자가 종결 부호면 다음 청크를 볼 때까지 기다림 (3.5, 1. 같은 숫자 구분)
+ */
+public class SentenceSegmenter {
+
+    // 문장 경계 없이 길게 이어지면 쉼표/공백에서 끊어 말하기 시작 시점을 앞당김
+    private static final int MAX_SENTENCE_CHARS = 120;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private int scanFrom = 0;
+
+    /**
+     * 청크 추가
+     *
+     * @return 새로 완성된 문장들 (없으면 빈 목록)
+     */
+    public List<String> append(String chunk) {
+        List<String> sentences = new ArrayList<>();
+        buffer.append(chunk);
+
+        int i = scanFrom;
+        while (i < buffer.length()) {
+            char c = buffer.charAt(i);
+            int end = -1;
+            if (c == '\n') {
+                end = i + 1;
+            } else if (isTerminator(c)) {
+                int j = i + 1;
+                while (j < buffer.length() && (isTerminator(buffer.charAt(j)) || isCloser(buffer.charAt(j)))) {
+                    j++;
+                }
+                if (j == buffer.length()) {
+                    // 뒤에 무엇이 올지 모르므로 다음 청크까지 대기
+                    break;
+                }
+                if (Character.isWhitespace(buffer.charAt(j)) && !isListNumber(j)) {
+                    end = j;
+                } else {
+                    i = j;
+                    continue;
+                }
+            }
+
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            emit(end, sentences);
+            i = 0;
+        }
+        scanFrom = Math.max(0, Math.min(i, buffer.length()));
+
+        while (buffer.length() > MAX_SENTENCE_CHARS) {
+            int cut = softBreak();
+            if (cut <= 0) {
+                break;
+            }
+            emit(cut, sentences);
+            scanFrom = 0;
+        }
+        return sentences;
+    }
+
+    /**
+     * 응답 완료 시 남은 텍스트 반환 (없으면 null)
+     */
+    public String flush() {
+        String rest = buffer.toString().trim();
+        reset();
+        return rest.isEmpty() ? null : rest;
+    }
+
+    public void reset() {
+        buffer.setLength(0);
+        scanFrom = 0;
+    }
+
+    private void emit(int end, List<String> sentences) {
+        String sentence = buffer.substring(0, end).trim();
+        buffer.delete(0, end);
+        if (!sentence.isEmpty()) {
+            sentences.add(sentence);
+        }
+    }
+
+    /**
+     * 종결 부호 앞이 "1." 같은 목록 번호뿐인지 (목록 번호에서는 자르지 않음)
+     */
+    private boolean isListNumber(int terminatorEnd) {
+        int start = terminatorEnd - 1;
+        while (start >= 0 && isTerminator(buffer.charAt(start))) {
+            start--;
+        }
+        int digitsEnd = start;
+        while (start >= 0 && Character.isDigit(buffer.charAt(start))) {
+            start--;
+        }
+        if (digitsEnd == start) {
+            return false;
+        }
+        return start < 0 || Character.isWhitespace(buffer.charAt(start));
+    }
+
+    /**
+     * 너무 긴 문장을 자를 위치 (마지막 쉼표, 없으면 마지막 공백 뒤)
+     */
+    private int softBreak() {
+        int limit = Math.min(buffer.length(), MAX_SENTENCE_CHARS);
+        int space = -1;
+        for (int i = limit - 1; i > 0; i--) {
+            char c = buffer.charAt(i);
+            if (c == ',' || c == '，') {
+                return i + 1;
+            }
+            if (space < 0 && c == ' ') {
+                space = i + 1;
+            }
+        }
+        return space;
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '…' || c == '。' || c == '！' || c == '？';
+    }
+
+    private static boolean isCloser(char c) {
+        return c == ')' || c == '"' || c == '\'' || c == '”' || c == '’' || c == '」';
+    }
+}
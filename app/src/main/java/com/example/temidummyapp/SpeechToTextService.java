@@ -45,7 +45,8 @@ public class SpeechToTextService {
     
     public SpeechToTextService(Context context) {
         this.context = context.getApplicationContext();
-        this.client = new OkHttpClient.Builder()
+        // 공유 클라이언트에서 파생 (커넥션 풀 공유, 업로드용 타임아웃만 변경)
+        this.client = OpenAIHttpClient.shared().newBuilder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
@@ -161,7 +162,11 @@ public class SpeechToTextService {
             @Override
             public void onFailure(Call call, IOException e) {
                 Log.e(TAG, "STT API 호출 실패", e);
-                mainHandler.post(() -> callback.onError("네트워크 오류: " + e.getMessage()));
+                if (e instanceof OpenAICircuitBreaker.CircuitOpenException) {
+                    mainHandler.post(() -> callback.onError("음성 인식 서버에 연결할 수 없습니다. 글자로 입력해주세요."));
+                } else {
+                    mainHandler.post(() -> callback.onError("네트워크 오류: " + e.getMessage()));
+                }
                 cleanupAudioFile();
             }
             
@@ -0,0 +1,399 @@
+package com.example.temidummyapp;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+/**
+ * 채팅 스트림 녹화/재생기 (공유 클라이언트의 마지막 애플리케이션 인터셉터)
+ * - RECORD: 실제 SSE 응답을 받은 그대로(청크 경계와 도착 시각 포함) 테이프 파일로 저장
+ * - REPLAY: 네트워크 대신 테이프를 원래 속도 또는 배속으로 흘려보냄
+ * 속도 제한기/장애 차단기와 스트림 파서, 화면 갱신은 실제와 같은 경로를 거치므로
+ * 토큰 비용과 네트워크 편차 없이 파싱/화면 처리 속도의 회귀를 같은 조건에서 측정할 수 있음
+ * 안드로이드 의존 없이 JVM 단위 테스트에서도 동작 (로그는 녹화 실패 시에만)
+ *
+ * 테이프 형식 (UTF-8 텍스트, 시각은 요청 시작 기준 ms)
+ * <pre>
+ * # sse-tape v1
+ * status 200
+ * headers 412
+ * 430	(청크 바이트 base64)
+ * ...
+ * </pre>
+ */
+public final class SseTapeDeck implements Interceptor {
+    private static final String TAG = "SseTapeDeck";
+
+    public enum Mode {
+        OFF,
+        RECORD,
+        REPLAY
+    }
+
+    private static final String MAGIC = "# sse-tape v1";
+    private static final String TAPE_SUFFIX = ".tape";
+    private static final MediaType EVENT_STREAM = MediaType.get("text/event-stream");
+    // 재생 대기 중에도 취소를 빨리 알아채도록 나눠서 잠듦
+    private static final long MAX_SLEEP_SLICE_MS = 50;
+
+    private static final SseTapeDeck INSTANCE = new SseTapeDeck();
+
+    private volatile Mode mode = Mode.OFF;
+    private volatile File directory;
+    private volatile double speed = 1.0;
+    private volatile List<Tape> tapes = Collections.emptyList();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger replayed = new AtomicInteger();
+
+    /**
+     * 녹화된 응답 1건
+     */
+    static final class Tape {
+        final String name;
+        final int status;
+        final long headersMs;
+        final long[] offsetsMs;
+        final ByteString[] chunks;
+
+        Tape(String name, int status, long headersMs, long[] offsetsMs, ByteString[] chunks) {
+            this.name = name;
+            this.status = status;
+            this.headersMs = headersMs;
+            this.offsetsMs = offsetsMs;
+            this.chunks = chunks;
+        }
+
+        long durationMs() {
+            return offsetsMs.length > 0 ? offsetsMs[offsetsMs.length - 1] : headersMs;
+        }
+
+        static Tape read(File file) throws IOException {
+            try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+                return read(file.getName(), source);
+            }
+        }
+
+        static Tape read(String name, BufferedSource source) throws IOException {
+            String magic = source.readUtf8Line();
+            if (!MAGIC.equals(magic)) {
+                throw new IOException("테이프 형식이 아님: " + name);
+            }
+            int status = 200;
+            long headersMs = 0;
+            List<Long> offsets = new ArrayList<>();
+            List<ByteString> chunks = new ArrayList<>();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("status ")) {
+                    status = Integer.parseInt(line.substring(7).trim());
+                } else if (line.startsWith("headers ")) {
+                    headersMs = Long.parseLong(line.substring(8).trim());
+                } else {
+                    int tab = line.indexOf('\t');
+                    ByteString chunk = tab > 0 ? ByteString.decodeBase64(line.substring(tab + 1)) : null;
+                    if (chunk == null) {
+                        throw new IOException("잘못된 청크 줄: " + name);
+                    }
+                    offsets.add(Long.parseLong(line.substring(0, tab)));
+                    chunks.add(chunk);
+                }
+            }
+            long[] offsetsMs = new long[offsets.size()];
+            for (int i = 0; i < offsetsMs.length; i++) {
+                offsetsMs[i] = offsets.get(i);
+            }
+            return new Tape(name, status, headersMs, offsetsMs, chunks.toArray(new ByteString[0]));
+        }
+    }
+
+    public static SseTapeDeck getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 공유 인스턴스와 별개로 만드는 재생기 (단위 테스트/벤치마크용)
+     */
+    SseTapeDeck() {
+    }
+
+    /**
+     * 녹화 시작 (스트리밍 응답마다 directory에 테이프 1개)
+     */
+    public synchronized void record(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("폴더를 만들 수 없음: " + directory);
+        }
+        this.directory = directory;
+        this.mode = Mode.RECORD;
+    }
+
+    /**
+     * 재생 시작 (directory의 테이프를 파일 이름 순서대로 돌아가며 사용)
+     *
+     * @param speed 재생 배속 (1 = 녹화 당시 속도, 0 = 기다리지 않고 바로)
+     */
+    public synchronized void replay(File directory, double speed) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(TAPE_SUFFIX));
+        if (files == null || files.length == 0) {
+            throw new IOException("재생할 테이프가 없음: " + directory);
+        }
+        Arrays.sort(files);
+        List<Tape> loaded = new ArrayList<>(files.length);
+        for (File file : files) {
+            loaded.add(Tape.read(file));
+        }
+        this.tapes = Collections.unmodifiableList(loaded);
+        this.directory = directory;
+        this.speed = Math.max(0, speed);
+        this.cursor.set(0);
+        this.mode = Mode.REPLAY;
+    }
+
+    public synchronized void off() {
+        mode = Mode.OFF;
+        tapes = Collections.emptyList();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getStats() {
+        File dir = directory;
+        return String.format(Locale.US, "SSE tape: %s, recorded %d, replayed %d (%d tapes, x%.1f)%s",
+                mode, recorded.get(), replayed.get(), tapes.size(), speed,
+                dir != null ? ", dir " + dir.getAbsolutePath() : "");
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Mode current = mode;
+        Request request = chain.request();
+        // 인증 없는 요청 (사전 연결)과 스트리밍이 아닌 요청 (요약 등)은 그대로 보냄
+        if (current == Mode.OFF || request.header("Authorization") == null || !isStreaming(request)) {
+            return chain.proceed(request);
+        }
+        if (current == Mode.REPLAY) {
+            return replay(chain, request);
+        }
+        return record(chain, request);
+    }
+
+    private static boolean isStreaming(Request request) throws IOException {
+        if (request.body() == null) {
+            return false;
+        }
+        Buffer body = new Buffer();
+        request.body().writeTo(body);
+        return body.readUtf8().contains("\"stream\":true");
+    }
+
+    // ========== 녹화 ==========
+
+    private Response record(Chain chain, Request request) throws IOException {
+        long startNanos = System.nanoTime();
+        Response response = chain.proceed(request);
+        ResponseBody body = response.body();
+        MediaType type = body != null ? body.contentType() : null;
+        if (body == null || type == null || !"event-stream".equals(type.subtype())) {
+            return response;
+        }
+
+        File file = new File(directory, String.format(Locale.US, "%03d_%d%s",
+                recorded.incrementAndGet(), System.currentTimeMillis(), TAPE_SUFFIX));
+        BufferedSink tape;
+        try {
+            tape = Okio.buffer(Okio.sink(file));
+            tape.writeUtf8(MAGIC).writeByte('\n');
+            tape.writeUtf8("status " + response.code()).writeByte('\n');
+            tape.writeUtf8("headers " + elapsedMs(startNanos)).writeByte('\n');
+        } catch (IOException e) {
+            Log.w(TAG, "테이프 파일 생성 실패: " + file, e);
+            return response;
+        }
+
+        Source recording = new RecordingSource(body.source(), tape, startNanos, file);
+        ResponseBody recordingBody = ResponseBody.create(Okio.buffer(recording), type, body.contentLength());
+        return response.newBuilder().body(recordingBody).build();
+    }
+
+    /**
+     * 읽은 바이트를 그대로 넘기면서 청크마다 도착 시각과 함께 테이프에 기록
+     */
+    private static final class RecordingSource extends ForwardingSource {
+        private final BufferedSink tape;
+        private final long startNanos;
+        private final File file;
+        private boolean closed = false;
+
+        RecordingSource(Source delegate, BufferedSink tape, long startNanos, File file) {
+            super(delegate);
+            this.tape = tape;
+            this.startNanos = startNanos;
+            this.file = file;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0 && !closed) {
+                Buffer chunk = new Buffer();
+                sink.copyTo(chunk, sink.size() - read, read);
+                try {
+                    tape.writeUtf8(Long.toString(elapsedMs(startNanos))).writeByte('\t')
+                            .writeUtf8(chunk.readByteString().base64()).writeByte('\n');
+                } catch (IOException e) {
+                    // 녹화 실패가 실제 응답을 깨뜨리지 않도록 녹화만 중단
+                    Log.w(TAG, "테이프 기록 실패: " + file, e);
+                    closeTape();
+                }
+            } else if (read == -1) {
+                closeTape();
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeTape();
+            super.close();
+        }
+
+        private void closeTape() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                tape.close();
+            } catch (IOException e) {
+                Log.w(TAG, "테이프 닫기 실패: " + file, e);
+            }
+        }
+    }
+
+    // ========== 재생 ==========
+
+    private Response replay(Chain chain, Request request) throws IOException {
+        List<Tape> loaded = tapes;
+        if (loaded.isEmpty()) {
+            return chain.proceed(request);
+        }
+        Tape tape = loaded.get((cursor.getAndIncrement() & Integer.MAX_VALUE) % loaded.size());
+        replayed.incrementAndGet();
+
+        long startNanos = System.nanoTime();
+        sleepUntil(chain.call(), startNanos, tape.headersMs);
+
+        ResponseBody body = ResponseBody.create(
+                Okio.buffer(new ReplaySource(tape, chain.call(), startNanos)), EVENT_STREAM, -1);
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(tape.status)
+                .message("Replayed " + tape.name)
+                .header("Content-Type", EVENT_STREAM.toString())
+                .body(body)
+                .build();
+    }
+
+    /**
+     * 테이프 청크를 녹화 당시 간격(배속 적용)대로 내보내는 Source
+     */
+    private final class ReplaySource implements Source {
+        private final Tape tape;
+        private final Call call;
+        private final long startNanos;
+        private int next = 0;
+
+        ReplaySource(Tape tape, Call call, long startNanos) {
+            this.tape = tape;
+            this.call = call;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            if (next >= tape.chunks.length) {
+                return -1;
+            }
+            sleepUntil(call, startNanos, tape.offsetsMs[next]);
+            ByteString chunk = tape.chunks[next++];
+            sink.write(chunk);
+            return chunk.size();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+
+        @Override
+        public void close() {
+            next = tape.chunks.length;
+        }
+    }
+
+    /**
+     * 재생 시작 후 offsetMs(배속 적용) 시점까지 대기 (취소되면 즉시 IOException)
+     */
+    private void sleepUntil(Call call, long startNanos, long offsetMs) throws IOException {
+        double pace = speed;
+        if (pace <= 0) {
+            checkCanceled(call);
+            return;
+        }
+        long targetNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(offsetMs) / pace);
+        while (true) {
+            checkCanceled(call);
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(targetNanos - System.nanoTime());
+            if (remainingMs <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(Math.min(remainingMs, MAX_SLEEP_SLICE_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Canceled");
+            }
+        }
+    }
+
+    private static void checkCanceled(Call call) throws IOException {
+        if (call.isCanceled()) {
+            throw new IOException("Canceled");
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
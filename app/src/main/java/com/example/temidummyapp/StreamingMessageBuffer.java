@@ -0,0 +1,92 @@
+package com.example.temidummyapp;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * 스트리밍 중인 봇 메시지 버퍼
+ * 토큰마다 문자열을 새로 만들고 RecyclerView를 갱신하는 대신 StringBuilder에 모아두고
+ * 디스플레이 프레임당 최대 한 번만 메시지에 반영해 화면에 알림
+ * 모든 메서드는 메인 스레드에서 호출해야 함
+ */
+public class StreamingMessageBuffer implements Choreographer.FrameCallback {
+
+    public interface FlushListener {
+        /**
+         * 버퍼 내용이 message에 반영된 직후 호출 (프레임당 최대 1회)
+         */
+        void onFlush(ChatMessage message);
+    }
+
+    private final ChatMessage message;
+    private final FlushListener listener;
+    private final StringBuilder text;
+    private final Choreographer choreographer;
+    private boolean frameScheduled = false;
+    private boolean dirty = false;
+    private boolean finished = false;
+    // 아직 반영되지 않은 첫 델타가 들어온 시각 (화면 반영 지연 측정용)
+    private long pendingSinceMs;
+
+    public StreamingMessageBuffer(ChatMessage message, FlushListener listener) {
+        this.message = message;
+        this.listener = listener;
+        this.text = new StringBuilder(message.getMessage() != null ? message.getMessage() : "");
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * 새 델타 추가 (다음 프레임에 반영)
+     */
+    public void append(String chunk) {
+        if (finished) {
+            return;
+        }
+        text.append(chunk);
+        if (!dirty) {
+            pendingSinceMs = SystemClock.uptimeMillis();
+        }
+        dirty = true;
+        if (!frameScheduled) {
+            frameScheduled = true;
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * 남은 델타를 즉시 반영하고 버퍼 종료 (완료, 오류, 취소 시)
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        if (frameScheduled) {
+            choreographer.removeFrameCallback(this);
+            frameScheduled = false;
+        }
+        flush();
+        finished = true;
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (!finished) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        message.setMessage(text.toString());
+        listener.onFlush(message);
+        ChatTimings.record(ChatTimings.Metric.UI_FLUSH, SystemClock.uptimeMillis() - pendingSinceMs);
+    }
+}
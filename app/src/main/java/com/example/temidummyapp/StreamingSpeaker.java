@@ -0,0 +1,170 @@
+package com.example.temidummyapp;
+
+import android.util.Log;
+
+import com.robotemi.sdk.Robot;
+import com.robotemi.sdk.TtsRequest;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 스트리밍 답변을 문장이 완성되는 대로 테미 TTS로 읽어주는 스피커
+ * 응답이 끝난 뒤 한꺼번에 읽으면 긴 침묵이 생기므로, 첫 문장이 끝나자마자 말하기 시작함
+ * 테미 SDK는 요청 하나만 취소할 수 없으므로, 다음 문장은 직접 대기열에 두고 앞 문장이 끝나면 보냄
+ * (취소할 때 테미 대기열에는 이 스피커의 요청이 최대 1개만 남음)
+ * append/finish/cancel은 메인 스레드에서 호출
+ */
+public class StreamingSpeaker implements Robot.TtsListener {
+    private static final String TAG = "StreamingSpeaker";
+
+    // 읽지 않을 마크다운 기호 (굵게, 취소선, 기울임, 제목)
+    private static final Pattern MARKDOWN = Pattern.compile("\\*\\*|~~|[*#`]");
+    // 줄 앞의 목록 기호
+    private static final Pattern BULLET = Pattern.compile("^[-•·]\\s*");
+
+    private final Robot robot;
+    private final SentenceSegmenter segmenter = new SentenceSegmenter();
+    // 아래 상태는 this로 보호 (리스너는 SDK 스레드에서 올 수 있음)
+    // 아직 테미에 보내지 않은 문장
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    // 테미에 보냈지만 아직 끝나지 않은 이 스피커의 요청
+    private UUID current;
+    // 다른 화면에서 보낸, 아직 끝나지 않은 TTS 요청 (길 안내 등)
+    private final Set<UUID> others = new HashSet<>();
+    private boolean finished = false;
+    private boolean released = false;
+    private int spoken = 0;
+
+    public StreamingSpeaker(Robot robot) {
+        this.robot = robot;
+        robot.addTtsListener(this);
+    }
+
+    /**
+     * 스트림 델타 추가 (문장이 완성되면 바로 TTS 요청)
+     */
+    public synchronized void append(String chunk) {
+        if (finished) {
+            return;
+        }
+        List<String> sentences = segmenter.append(chunk);
+        for (String sentence : sentences) {
+            speak(sentence);
+        }
+    }
+
+    /**
+     * 응답 완료: 남은 문장을 읽고, 모두 읽으면 리스너 해제
+     */
+    public synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        String rest = segmenter.flush();
+        if (rest != null) {
+            speak(rest);
+        }
+        if (current == null) {
+            release();
+        }
+    }
+
+    /**
+     * 사용자가 끼어들었을 때 (새 질문, 마이크, 화면 이탈) 읽던 문장과 대기 중인 문장 모두 중단
+     * 다른 화면의 안내 음성이 테미 대기열에 있으면 그것까지 지우지 않도록 읽던 문장만 마저 읽게 둠
+     */
+    public synchronized void cancel() {
+        finished = true;
+        segmenter.reset();
+        int dropped = queue.size();
+        queue.clear();
+        if (current != null) {
+            if (others.isEmpty()) {
+                // 테미 대기열에는 이 스피커의 요청만 있음
+                robot.cancelAllTtsRequests();
+                Log.d(TAG, "TTS 중단 (" + dropped + "개 문장 취소)");
+            } else {
+                Log.d(TAG, "다른 안내 음성이 있어 읽던 문장만 마저 읽음 (" + dropped + "개 문장 취소)");
+            }
+            current = null;
+        }
+        release();
+    }
+
+    @Override
+    public synchronized void onTtsStatusChanged(TtsRequest ttsRequest) {
+        UUID id = ttsRequest.getId();
+        boolean done;
+        switch (ttsRequest.getStatus()) {
+            case COMPLETED:
+            case ERROR:
+            case NOT_ALLOWED:
+            case CANCELED:
+                done = true;
+                break;
+            default:
+                done = false;
+                break;
+        }
+        if (!id.equals(current)) {
+            if (done) {
+                others.remove(id);
+            } else {
+                others.add(id);
+            }
+            return;
+        }
+        if (!done) {
+            return;
+        }
+        current = null;
+        if (!queue.isEmpty()) {
+            send(queue.pollFirst());
+        } else if (finished) {
+            release();
+        }
+    }
+
+    private void speak(String sentence) {
+        String speech = toSpeech(sentence);
+        if (speech.isEmpty()) {
+            return;
+        }
+        if (current == null) {
+            send(speech);
+        } else {
+            queue.addLast(speech);
+        }
+    }
+
+    private void send(String speech) {
+        TtsRequest request = TtsRequest.create(speech, false);
+        current = request.getId();
+        robot.speak(request);
+        if (spoken++ == 0) {
+            Log.d(TAG, "첫 문장 읽기 시작: " + speech);
+        }
+    }
+
+    private void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        robot.removeTtsListener(this);
+    }
+
+    /**
+     * 화면용 마크다운을 읽기용 문장으로 변환
+     */
+    static String toSpeech(String sentence) {
+        String text = BULLET.matcher(sentence.trim()).replaceFirst("");
+        return MARKDOWN.matcher(text).replaceAll("").trim();
+    }
+}
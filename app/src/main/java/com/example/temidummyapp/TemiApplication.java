@@ -15,6 +15,11 @@ public class TemiApplication extends Application {
         // MainActivity의 "테미야" 버튼으로만 제어됨
         wakeWordService = new WakeWordService(this);
         Log.d(TAG, "Wake word service created (controlled by MainActivity toggle button)");
+
+        // 챗봇 프롬프트용 프로그램 목록을 부스 DB에서 미리 생성 (백그라운드)
+        ProgramKnowledge.preload(this);
+        // 오프라인 답변용 부스 색인도 미리 생성 (네트워크가 끊긴 첫 질문이 바로 답변되도록)
+        OfflineAnswerEngine.getInstance(this).preload();
     }
     
     public WakeWordService getWakeWordService() {
@@ -0,0 +1,103 @@
+package com.example.temidummyapp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 스트리밍 응답의 tool_calls 델타 누적기
+ * 함수 이름과 arguments 문자열이 여러 청크로 나뉘어 오므로 index별로 이어 붙임
+ */
+public class ToolCallAccumulator {
+
+    /**
+     * 완성된 도구 호출 1건
+     */
+    public static class ToolCall {
+        public String id;
+        public String name;
+        public final StringBuilder arguments = new StringBuilder();
+    }
+
+    private final List<ToolCall> calls = new ArrayList<>();
+
+    /**
+     * 스트림 청크 하나 반영
+     *
+     * @return 청크에 tool_calls 델타가 있었으면 true
+     */
+    public boolean accept(JsonObject chunk) {
+        if (chunk == null || !chunk.has("choices")) {
+            return false;
+        }
+        JsonArray choices = chunk.getAsJsonArray("choices");
+        if (choices.size() == 0) {
+            return false;
+        }
+        JsonObject choice = choices.get(0).getAsJsonObject();
+        JsonElement delta = choice.get("delta");
+        if (delta == null || !delta.isJsonObject()) {
+            return false;
+        }
+        JsonElement toolCalls = delta.getAsJsonObject().get("tool_calls");
+        if (toolCalls == null || !toolCalls.isJsonArray()) {
+            return false;
+        }
+
+        for (JsonElement element : toolCalls.getAsJsonArray()) {
+            JsonObject part = element.getAsJsonObject();
+            int index = part.has("index") ? part.get("index").getAsInt() : calls.size();
+            while (calls.size() <= index) {
+                calls.add(new ToolCall());
+            }
+            ToolCall call = calls.get(index);
+            if (part.has("id") && !part.get("id").isJsonNull()) {
+                call.id = part.get("id").getAsString();
+            }
+            JsonElement function = part.get("function");
+            if (function != null && function.isJsonObject()) {
+                JsonObject fn = function.getAsJsonObject();
+                if (fn.has("name") && !fn.get("name").isJsonNull()) {
+                    call.name = fn.get("name").getAsString();
+                }
+                if (fn.has("arguments") && !fn.get("arguments").isJsonNull()) {
+                    call.arguments.append(fn.get("arguments").getAsString());
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return calls.isEmpty();
+    }
+
+    public List<ToolCall> getCalls() {
+        return calls;
+    }
+
+    /**
+     * 대화에 다시 넣을 assistant 메시지 (tool_calls 포함)
+     */
+    public JsonObject toAssistantMessage() {
+        JsonArray toolCalls = new JsonArray();
+        for (ToolCall call : calls) {
+            JsonObject function = new JsonObject();
+            function.addProperty("name", call.name);
+            function.addProperty("arguments", call.arguments.toString());
+            JsonObject toolCall = new JsonObject();
+            toolCall.addProperty("id", call.id);
+            toolCall.addProperty("type", "function");
+            toolCall.add("function", function);
+            toolCalls.add(toolCall);
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.add("content", null);
+        message.add("tool_calls", toolCalls);
+        return message;
+    }
+}
@@ -166,6 +166,9 @@ public class WakeWordService {
         Log.i(TAG, "🎯 Wake word '테미야' detected! Moving to ChatActivity...");
         Log.i(TAG, "   Current context: " + context.getClass().getSimpleName());
 
+        // ChatActivity가 뜨는 동안 API 서버 연결을 미리 맺어둠
+        OpenAIHttpClient.prewarm("웨이크워드");
+
         // UI 스레드에서 Toast 표시 및 Activity 이동
         new Handler(Looper.getMainLooper()).post(new Runnable() {
             @Override
@@ -178,6 +181,7 @@ public class WakeWordService {
                     // ChatActivity로 이동 (어떤 Activity에서든 작동하도록 FLAG 설정)
                     Intent intent = new Intent(context, ChatActivity.class);
                     intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+                    intent.putExtra(ChatActivity.EXTRA_FROM_WAKE_WORD, true);
                     context.startActivity(intent);
                     Log.i(TAG, "   ✅ ChatActivity started successfully!");
                 } catch (Exception e) {
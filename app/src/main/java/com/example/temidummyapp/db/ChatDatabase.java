@@ -0,0 +1,66 @@
+package com.example.temidummyapp.db;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * 채팅 기록 DB (메시지는 추가만 하고, 스트리밍으로 채워진 마지막 봇 메시지만 갱신)
+ * 방문객 대화(세션)마다 sessions 행을 두고, 오래되거나 많이 쌓인 세션은 통째로 삭제
+ * 여러 스레드에서 같은 연결을 쓰도록 getInstance()로만 사용
+ */
+public class ChatDatabase extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "chat_db";
+    private static final int DB_VERSION = 1;
+
+    public static final String TABLE_MESSAGES = "messages";
+    public static final String TABLE_SESSIONS = "sessions";
+
+    private static volatile ChatDatabase instance;
+
+    public static ChatDatabase getInstance(Context context) {
+        ChatDatabase db = instance;
+        if (db == null) {
+            synchronized (ChatDatabase.class) {
+                db = instance;
+                if (db == null) {
+                    db = new ChatDatabase(context.getApplicationContext());
+                    instance = db;
+                }
+            }
+        }
+        return db;
+    }
+
+    private ChatDatabase(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+        // 화면 스레드의 읽기가 백그라운드 쓰기를 기다리지 않도록
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_MESSAGES + " (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "session_id INTEGER NOT NULL, " +
+                "type INTEGER NOT NULL, " +
+                "message TEXT NOT NULL, " +
+                "timestamp INTEGER NOT NULL" +
+                ")");
+        // 세션별 메시지를 저장 순서대로 읽음
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_messages_session ON " + TABLE_MESSAGES + " (session_id, id)");
+
+        // id는 ChatStorage가 발급 (첫 메시지를 저장할 때 행 생성)
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_SESSIONS + " (" +
+                "id INTEGER PRIMARY KEY, " +
+                "started_at INTEGER NOT NULL, " +
+                "last_active_at INTEGER NOT NULL, " +
+                "message_count INTEGER NOT NULL DEFAULT 0" +
+                ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+}
@@ -6,11 +6,19 @@ import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
 public class EventSearchHelper {
 
+    // 방문객 연령대 (챗봇 도구/오프라인 답변에서 사용)
+    public static final String VISITOR_ELEMENTARY = "초등학생";
+    public static final String VISITOR_ELEMENTARY_UPPER = "초등학생 고학년";
+    public static final String VISITOR_MIDDLE = "중학생";
+    public static final String VISITOR_HIGH = "고등학생";
+    public static final String VISITOR_ADULT = "성인";
+
     private EventDatabase dbHelper;
 
     public EventSearchHelper(Context context) {
@@ -95,6 +103,7 @@ public class EventSearchHelper {
                 return results;
             }
             
+            int idxId = cursor.getColumnIndex("id");
             int idx분야 = cursor.getColumnIndex("분야");
             int idx대제목 = cursor.getColumnIndex("대제목");
             int idx한줄소개 = cursor.getColumnIndex("한줄소개");
@@ -110,6 +119,7 @@ public class EventSearchHelper {
             while (cursor.moveToNext()) {
                 HashMap<String, String> item = new HashMap<>();
 
+                item.put("id", safeGet(cursor, idxId));
                 item.put("분야", safeGet(cursor, idx분야));
                 item.put("대제목", safeGet(cursor, idx대제목));
                 item.put("한줄소개", safeGet(cursor, idx한줄소개));
@@ -147,6 +157,73 @@ public class EventSearchHelper {
         return results;
     }
 
+    /**
+     * 해당 연령대 방문객이 참여할 수 있는 참여대상 값 목록 (알 수 없는 값이면 null = 제한 없음)
+     * search()의 대상목록은 "이 대상 이상" 기준이라 방문객 기준 필터에는 이 목록을 사용
+     */
+    public static List<String> allowedTargetsFor(String visitor) {
+        if (VISITOR_ELEMENTARY.equals(visitor)) {
+            return Arrays.asList("누구나", "초등학생 이상");
+        }
+        if (VISITOR_ELEMENTARY_UPPER.equals(visitor)) {
+            return Arrays.asList("누구나", "초등학생 이상", "초등학생(고학년)이상");
+        }
+        if (VISITOR_MIDDLE.equals(visitor)) {
+            return Arrays.asList("누구나", "초등학생 이상", "초등학생(고학년)이상", "중학생 이상");
+        }
+        return null;
+    }
+
+    /**
+     * 분야 목록 (중복 제거, 가나다순)
+     */
+    public ArrayList<String> getFields() {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        ArrayList<String> fields = new ArrayList<>();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("SELECT DISTINCT 분야 FROM events WHERE 분야 IS NOT NULL ORDER BY 분야", null);
+            while (cursor.moveToNext()) {
+                fields.add(cursor.getString(0));
+            }
+        } catch (Exception e) {
+            Log.e("EventSearchHelper", "DB fields error: " + e.getMessage(), e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            db.close();
+        }
+        return fields;
+    }
+
+    /**
+     * id로 프로그램 1개 조회 (없으면 null)
+     */
+    public HashMap<String, String> getById(long id) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("SELECT * FROM events WHERE id=?", new String[]{String.valueOf(id)});
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            HashMap<String, String> item = new HashMap<>();
+            for (int i = 0; i < cursor.getColumnCount(); i++) {
+                item.put(cursor.getColumnName(i), safeGet(cursor, i));
+            }
+            return item;
+        } catch (Exception e) {
+            Log.e("EventSearchHelper", "DB get error: " + e.getMessage(), e);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            db.close();
+        }
+    }
+
     // 안전하게 인덱스 검사 후 값 반환
     private String safeGet(Cursor cursor, int columnIndex) {
         if (columnIndex >= 0) {
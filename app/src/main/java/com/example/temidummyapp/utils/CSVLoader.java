@@ -1,6 +1,7 @@
 package com.example.temidummyapp.utils;
 
 import android.content.Context;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.content.ContentValues;
 import android.util.Log;
@@ -16,7 +17,27 @@ import java.util.regex.Pattern;
 
 public class CSVLoader {
 
-    public static void loadCSVToDB(Context context) {
+    /**
+     * events 테이블이 비어 있을 때만 CSV를 불러옴 (백그라운드 스레드에서 호출)
+     * 앱 시작 시 여러 곳에서 동시에 호출되므로 클래스 잠금으로 한 번에 하나만 확인/삽입
+     * (둘 다 빈 테이블을 보고 삭제+삽입을 겹쳐 실행하지 않도록)
+     */
+    public static synchronized void loadIfEmpty(Context context) {
+        EventDatabase dbHelper = new EventDatabase(context);
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        long count;
+        try {
+            count = DatabaseUtils.queryNumEntries(db, "events");
+        } finally {
+            db.close();
+        }
+        if (count == 0) {
+            Log.d("CSVLoader", "events table is empty, importing CSV");
+            loadCSVToDB(context);
+        }
+    }
+
+    public static synchronized void loadCSVToDB(Context context) {
         EventDatabase dbHelper = new EventDatabase(context);
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         InputStream is = null;
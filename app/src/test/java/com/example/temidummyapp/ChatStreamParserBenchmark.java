@@ -0,0 +1,173 @@
+package com.example.temidummyapp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ChatStreamParser 정확성 검증 + 기존 파싱 방식(BufferedReader + Gson)과의 처리량 비교
+ * 녹화된 SSE 스트림: src/test/resources/sse/
+ * 처리량 비교는 오래 걸리므로 -Pbenchmark 지정 시에만 실행
+ */
+public class ChatStreamParserBenchmark {
+    private static final String STREAM = "sse/chat_stream_ko.txt";
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void parsesSameTextAsGson() throws IOException {
+        byte[] stream = readResource(STREAM);
+        String expected = parseWithGson(stream);
+        assertTrue(expected.contains("CO-SHOW"));
+        assertEquals(expected, parseWithParser(new Buffer().write(stream)));
+    }
+
+    @Test
+    public void decodesUtf8SplitAcrossChunkBoundaries() throws IOException {
+        byte[] stream = readResource(STREAM);
+        String expected = parseWithGson(stream);
+        // 한글(3바이트)과 이모지(4바이트)가 반드시 중간에서 잘리도록 작은 조각으로 전달
+        for (int chunkSize = 1; chunkSize <= 7; chunkSize++) {
+            BufferedSource source = Okio.buffer(new ChunkedSource(stream, chunkSize));
+            assertEquals("chunkSize=" + chunkSize, expected, parseWithParser(source));
+        }
+    }
+
+    @Test
+    public void benchmarkAgainstGson() throws IOException {
+        Assume.assumeTrue("-Pbenchmark 지정 시에만 실행", Boolean.getBoolean("benchmark"));
+        byte[] stream = readResource(STREAM);
+        String expected = parseWithGson(stream);
+
+        for (int i = 0; i < WARMUP; i++) {
+            parseWithGson(stream);
+            parseWithParser(new Buffer().write(stream));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseWithGson(stream);
+        }
+        long gsonNanos = System.nanoTime() - start;
+
+        String parsed = null;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parsed = parseWithParser(new Buffer().write(stream));
+        }
+        long parserNanos = System.nanoTime() - start;
+        assertEquals(expected, parsed);
+
+        System.out.printf("SSE parse (%d bytes, %d iterations): gson %.1f us/stream, parser %.1f us/stream (x%.1f)%n",
+                stream.length, ITERATIONS,
+                gsonNanos / 1000.0 / ITERATIONS, parserNanos / 1000.0 / ITERATIONS,
+                (double) gsonNanos / parserNanos);
+    }
+
+    private static String parseWithParser(BufferedSource source) throws IOException {
+        ChatStreamParser parser = new ChatStreamParser(source);
+        StringBuilder text = new StringBuilder();
+        int event;
+        while ((event = parser.next()) != ChatStreamParser.END) {
+            if (event == ChatStreamParser.DONE) {
+                break;
+            }
+            if (event == ChatStreamParser.CONTENT) {
+                text.append(parser.content());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 이전 OpenAIService 구현과 같은 방식 (줄마다 substring + JsonObject 트리)
+     */
+    private static String parseWithGson(byte[] stream) throws IOException {
+        Gson gson = new Gson();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(stream), StandardCharsets.UTF_8));
+        StringBuilder text = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data: ")) {
+                continue;
+            }
+            String data = line.substring(6);
+            if (data.equals("[DONE]")) {
+                break;
+            }
+            JsonObject json = gson.fromJson(data, JsonObject.class);
+            if (json.has("choices") && json.getAsJsonArray("choices").size() > 0) {
+                JsonObject choice = json.getAsJsonArray("choices").get(0).getAsJsonObject();
+                if (choice.has("delta")) {
+                    JsonObject delta = choice.getAsJsonObject("delta");
+                    if (delta.has("content") && !delta.get("content").isJsonNull()) {
+                        text.append(delta.get("content").getAsString());
+                    }
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream in = ChatStreamParserBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("resource not found: " + name);
+            }
+            return Okio.buffer(Okio.source(in)).readByteArray();
+        }
+    }
+
+    /**
+     * 네트워크 패킷처럼 지정한 크기 이하로만 바이트를 내보내는 Source
+     */
+    private static class ChunkedSource implements Source {
+        private final byte[] data;
+        private final int chunkSize;
+        private int position;
+
+        ChunkedSource(byte[] data, int chunkSize) {
+            this.data = data;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int n = (int) Math.min(Math.min(byteCount, chunkSize), data.length - position);
+            sink.write(data, position, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
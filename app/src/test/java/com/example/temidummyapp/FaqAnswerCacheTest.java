@@ -0,0 +1,60 @@
+package com.example.temidummyapp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * FaqAnswerCache 유사 질문 판정 검증 (비슷해 보여도 대상/핵심 단어가 다르면 다른 질문)
+ */
+public class FaqAnswerCacheTest {
+    private static final String ANSWER = "저장된 답변";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FaqAnswerCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new FaqAnswerCache(new File(folder.getRoot(), "faq_cache.json"));
+    }
+
+    @Test
+    public void matchesParaphrasedQuestion() {
+        cache.put("로봇 체험 어디서 해?", ANSWER);
+        assertEquals(ANSWER, cache.lookup("로봇 체험 어디서 해요"));
+        assertEquals(ANSWER, cache.lookup("로봇체험 어디서해?!"));
+    }
+
+    @Test
+    public void rejectsDifferentAudience() {
+        cache.put("초등학생이 할 수 있는 로봇 체험 추천해줘", ANSWER);
+        assertNull(cache.lookup("중학생이 할 수 있는 로봇 체험 추천해줘"));
+        assertNull(cache.lookup("고등학생이 할 수 있는 로봇 체험 추천해줘"));
+        assertNull(cache.lookup("초등학생 고학년이 할 수 있는 로봇 체험 추천해줘"));
+        assertNull(cache.lookup("할 수 있는 로봇 체험 추천해줘"));
+    }
+
+    @Test
+    public void rejectsDifferentKeyword() {
+        cache.put("로봇 체험 부스 어디야", ANSWER);
+        assertNull(cache.lookup("드론 체험 부스 어디야"));
+
+        cache.put("초등학생이 할 수 있는 로봇 체험 추천해줘", ANSWER);
+        assertNull(cache.lookup("초등학생이 할 수 있는 드론 체험 추천해줘"));
+    }
+
+    @Test
+    public void rejectsDifferentNumber() {
+        cache.put("B04 부스 어디야", ANSWER);
+        assertNull(cache.lookup("B05 부스 어디야"));
+        assertNull(cache.lookup("10분 이내 체험 알려줘"));
+    }
+}
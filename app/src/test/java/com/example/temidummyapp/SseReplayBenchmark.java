@@ -0,0 +1,219 @@
+package com.example.temidummyapp;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.Okio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SseTapeDeck 녹화/재생 검증 + 재생 스트림 기준 파싱 지연/처리량 측정 (네트워크/토큰 없이 CI에서 실행)
+ * 테이프는 src/test/resources/sse/ 스트림을 이벤트 단위 청크로 나누고 고정 간격을 붙여 만듦
+ * 처리량 측정은 오래 걸리므로 -Pbenchmark 지정 시에만 실행
+ */
+public class SseReplayBenchmark {
+    private static final String STREAM = "sse/chat_stream_ko.txt";
+    private static final String API_URL = "https://api.openai.com/v1/chat/completions";
+    // 녹화 테이프 흉내: 응답 헤더 400ms, 첫 청크 450ms, 이후 청크 간격 20ms
+    private static final long HEADERS_MS = 400;
+    private static final long FIRST_CHUNK_MS = 450;
+    private static final long CHUNK_INTERVAL_MS = 20;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysRecordedBytesThroughInterceptorChain() throws IOException {
+        byte[] stream = readResource(STREAM);
+        SseTapeDeck deck = new SseTapeDeck();
+        deck.replay(writeTape(stream), 0);
+
+        try (Response response = newClient(deck).newCall(chatRequest()).execute()) {
+            assertEquals(200, response.code());
+            assertArrayEquals(stream, response.body().bytes());
+        }
+    }
+
+    @Test
+    public void recordsWhatItReplays() throws IOException {
+        byte[] stream = readResource(STREAM);
+        SseTapeDeck player = new SseTapeDeck();
+        player.replay(writeTape(stream), 0);
+        File recordings = folder.newFolder("recorded");
+        SseTapeDeck recorder = new SseTapeDeck();
+        recorder.record(recordings);
+
+        // 녹화기 → 재생기 순서라 녹화기는 재생된 응답을 실제 응답처럼 받음
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(recorder)
+                .addInterceptor(player)
+                .build();
+        try (Response response = client.newCall(chatRequest()).execute()) {
+            response.body().bytes();
+        }
+
+        File[] tapes = recordings.listFiles();
+        assertEquals(1, tapes.length);
+        SseTapeDeck.Tape tape = SseTapeDeck.Tape.read(tapes[0]);
+        Buffer joined = new Buffer();
+        for (ByteString chunk : tape.chunks) {
+            joined.write(chunk);
+        }
+        assertArrayEquals(stream, joined.readByteArray());
+    }
+
+    @Test
+    public void keepsRecordedPaceAtRequestedSpeed() throws IOException {
+        byte[] stream = readResource(STREAM);
+        SseTapeDeck deck = new SseTapeDeck();
+        File dir = writeTape(stream);
+        deck.replay(dir, 10);
+        long expectedMs = SseTapeDeck.Tape.read(dir.listFiles()[0]).durationMs() / 10;
+
+        long start = System.nanoTime();
+        try (Response response = newClient(deck).newCall(chatRequest()).execute()) {
+            response.body().bytes();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("elapsed " + elapsedMs + "ms < expected " + expectedMs + "ms", elapsedMs >= expectedMs);
+    }
+
+    @Test
+    public void cancelStopsReplayImmediately() throws IOException {
+        SseTapeDeck deck = new SseTapeDeck();
+        deck.replay(writeTape(readResource(STREAM)), 1);
+        Call call = newClient(deck).newCall(chatRequest());
+        try (Response response = call.execute()) {
+            ChatStreamParser parser = new ChatStreamParser(response.body().source());
+            while (parser.next() != ChatStreamParser.CONTENT) {
+                // 첫 글자까지 읽음
+            }
+            call.cancel();
+            long start = System.nanoTime();
+            try {
+                while (parser.next() != ChatStreamParser.END) {
+                    // 취소 후에는 곧바로 실패해야 함
+                }
+                fail("취소된 재생이 끝까지 진행됨");
+            } catch (IOException expected) {
+                long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertTrue("waited " + waitedMs + "ms", waitedMs < CHUNK_INTERVAL_MS * 5);
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkReplayedStreamParsing() throws IOException {
+        Assume.assumeTrue("-Pbenchmark 지정 시에만 실행", Boolean.getBoolean("benchmark"));
+        SseTapeDeck deck = new SseTapeDeck();
+        deck.replay(writeTape(readResource(STREAM)), 0);
+        OkHttpClient client = newClient(deck);
+
+        for (int i = 0; i < WARMUP; i++) {
+            parseStream(client, null);
+        }
+
+        long[] firstContentNanos = new long[1];
+        long totalFirstContent = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            firstContentNanos[0] = 0;
+            parseStream(client, firstContentNanos);
+            assertTrue("재생 스트림에 본문이 없음", firstContentNanos[0] > 0);
+            totalFirstContent += firstContentNanos[0];
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        System.out.printf("SSE replay (x0, %d iterations): %.1f us/stream, first content %.1f us%n",
+                ITERATIONS, totalNanos / 1000.0 / ITERATIONS, totalFirstContent / 1000.0 / ITERATIONS);
+    }
+
+    /**
+     * 재생 응답을 ChatStreamParser로 끝까지 읽음 (firstContentNanos: 호출부터 첫 글자까지)
+     */
+    private static void parseStream(OkHttpClient client, long[] firstContentNanos) throws IOException {
+        long start = System.nanoTime();
+        try (Response response = client.newCall(chatRequest()).execute()) {
+            ChatStreamParser parser = new ChatStreamParser(response.body().source());
+            boolean first = true;
+            int event;
+            while ((event = parser.next()) != ChatStreamParser.END && event != ChatStreamParser.DONE) {
+                if (event == ChatStreamParser.CONTENT && first) {
+                    first = false;
+                    if (firstContentNanos != null) {
+                        firstContentNanos[0] = System.nanoTime() - start;
+                    }
+                }
+            }
+        }
+    }
+
+    private static OkHttpClient newClient(SseTapeDeck deck) {
+        return new OkHttpClient.Builder().addInterceptor(deck).build();
+    }
+
+    private static Request chatRequest() {
+        return new Request.Builder()
+                .url(API_URL)
+                .addHeader("Authorization", "Bearer test")
+                .post(RequestBody.create("{\"model\":\"gpt-4o-mini\",\"stream\":true}",
+                        MediaType.get("application/json; charset=utf-8")))
+                .build();
+    }
+
+    /**
+     * 스트림을 SSE 이벤트("\n\n") 단위 청크로 나눠 테이프 1개로 저장
+     */
+    private File writeTape(byte[] stream) throws IOException {
+        File dir = folder.newFolder();
+        try (BufferedSink sink = Okio.buffer(Okio.sink(new File(dir, "001_test.tape")))) {
+            sink.writeUtf8("# sse-tape v1\nstatus 200\nheaders " + HEADERS_MS + "\n");
+            long offset = FIRST_CHUNK_MS;
+            int from = 0;
+            for (int i = 0; i + 1 < stream.length; i++) {
+                if (stream[i] == '\n' && stream[i + 1] == '\n') {
+                    writeChunk(sink, offset, stream, from, i + 2);
+                    offset += CHUNK_INTERVAL_MS;
+                    from = i + 2;
+                }
+            }
+            if (from < stream.length) {
+                writeChunk(sink, offset, stream, from, stream.length);
+            }
+        }
+        return dir;
+    }
+
+    private static void writeChunk(BufferedSink sink, long offsetMs, byte[] stream, int from, int to)
+            throws IOException {
+        sink.writeUtf8(offsetMs + "\t" + ByteString.of(stream, from, to - from).base64() + "\n");
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream in = SseReplayBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+            return Okio.buffer(Okio.source(in)).readByteArray();
+        }
+    }
+}